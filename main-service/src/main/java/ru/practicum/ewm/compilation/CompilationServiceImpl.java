@@ -1,45 +1,34 @@
 package ru.practicum.ewm.compilation;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.ewm.client.StatClient;
-import ru.practicum.ewm.comment.CommentRepository;
-import ru.practicum.ewm.comment.dto.CountCommentByEvent;
 import ru.practicum.ewm.compilation.dto.CompilationDto;
 import ru.practicum.ewm.compilation.dto.NewCompilationDto;
 import ru.practicum.ewm.compilation.dto.UpdateCompilationDto;
 import ru.practicum.ewm.event.Event;
-import ru.practicum.ewm.event.EventMapper;
+import ru.practicum.ewm.event.EventViewProvider;
 import ru.practicum.ewm.event.EventRepository;
+import ru.practicum.ewm.event.QEvent;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
-import ru.practicum.ewm.request.RequestRepository;
-import ru.practicum.ewm.request.RequestStatus;
-import ru.practicum.ewm.request.dto.RequestCountByEventId;
-import ru.practicum.ewm.stat.StatDto;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Transactional(readOnly = true)
 public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
-    private final RequestRepository requestRepository;
     private final EventRepository eventRepository;
-    private final CommentRepository commentRepository;
-    private final StatClient statClient;
+    private final EventViewProvider eventViewProvider;
 
     @Override
     public List<CompilationDto> getCompilations(int from, int size, Boolean pinned) {
@@ -104,52 +93,16 @@ public class CompilationServiceImpl implements CompilationService {
 
     }
 
-    private Map<Long, Long> getViews(List<Event> events, boolean unique) {
-        List<String> uris = new ArrayList<>();
-        LocalDateTime minDate = events.stream()
-                .peek(e -> uris.add("/events/" + e.getId()))
-                .map(Event::getCreatedOn)
-                .min((LocalDateTime::compareTo))
-                .orElseGet(LocalDateTime::now);
-        LocalDateTime maxDate = events.stream()
-                .map(Event::getEventDate)
-                .max((LocalDateTime::compareTo))
-                .orElseGet(LocalDateTime::now);
-        ResponseEntity<Object> response = statClient.getStats(minDate, maxDate, uris, unique);
-        Map<Long, Long> stats = Collections.emptyMap();
-        if (response.getBody() instanceof List<?>) {
-            stats = ((List<?>) response.getBody()).stream()
-                    .map(o -> (StatDto) o)
-                    .filter(s -> s.getApp().equals("ewm-main-service"))
-                    .collect(Collectors.toMap(s -> Long.valueOf(s.getUri().split("/")[3]), StatDto::getHits));
-        }
-        return stats;
-    }
-
     private List<EventShortDto> getEventShortDtos(Compilation comp) {
-        Map<Long, Long> stats;
-        if (!comp.getEvents().isEmpty()) {
-            stats = getViews(comp.getEvents(), true);
-        } else {
-            stats = Collections.emptyMap();
-        }
-
-        List<Long> eventIds = comp.getEvents().stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-
-        Map<Long, Long> confirmedRequests = requestRepository.countByUser(eventIds, RequestStatus.CONFIRMED)
-                .stream()
-                .collect(Collectors.toMap(RequestCountByEventId::getEventId, RequestCountByEventId::getCount));
-
-        Map<Long, Long> commentsCount = commentRepository.countCommentForEvents(eventIds)
-                .stream()
-                .collect(Collectors.toMap(CountCommentByEvent::getEventId, CountCommentByEvent::getCount));
-
-        return comp.getEvents().stream()
-                .map(e -> EventMapper.mapToEventShortDto(e, stats.getOrDefault(e.getId(), 0L),
-                        confirmedRequests.getOrDefault(e.getId(), 0L),
-                        commentsCount.getOrDefault(e.getId(), 0L)))
-                .collect(Collectors.toList());
+        QEvent qEvent = QEvent.event;
+        QEvent compilationEvent = new QEvent("compilationEvent");
+        List<EventShortDto> events = eventRepository.findShort(qEvent.id.in(JPAExpressions
+                        .select(compilationEvent.id)
+                        .from(QCompilation.compilation)
+                        .join(QCompilation.compilation.events, compilationEvent)
+                        .where(QCompilation.compilation.id.eq(comp.getId()))),
+                qEvent.id.asc());
+        eventViewProvider.applyViews(events, true);
+        return events;
     }
 }
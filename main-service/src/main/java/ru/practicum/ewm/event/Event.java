@@ -58,4 +58,7 @@ public class Event {
     @Enumerated(EnumType.STRING)
     @Column(name = "event_state")
     EventState eventState;
+    Long views;
+    @Column(name = "confirmed_requests", updatable = false)
+    Long confirmedRequests;
 }
@@ -36,8 +36,11 @@ public class EventController {
                                                          @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
                                                          @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
                                                          @RequestParam(defaultValue = "0") int from,
-                                                         @RequestParam(defaultValue = "10") int size) {
-        return new ResponseEntity<>(eventService.getEventsByFilter(users, states, categories, rangeStart, rangeEnd, from, size), HttpStatus.OK);
+                                                         @RequestParam(defaultValue = "10") int size,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "false") boolean count) {
+        return eventService.getEventsByFilter(users, states, categories, rangeStart, rangeEnd, from, size, cursor, count)
+                .toResponseEntity();
     }
 
     @PatchMapping("/admin/events/{eventId}")
@@ -50,14 +53,16 @@ public class EventController {
                                                           @RequestParam(required = false) List<Long> categories,
                                                           @RequestParam(required = false) Boolean paid,
                                                           @RequestParam(defaultValue = "false") boolean onlyAvailable,
-                                                          @RequestParam(defaultValue = "EVENT_DATE") EventSort sort,
+                                                          @RequestParam(required = false) EventSort sort,
                                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
                                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
                                                           @RequestParam(defaultValue = "0") int from,
                                                           @RequestParam(defaultValue = "10") int size,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "false") boolean count,
                                                           HttpServletRequest request) {
-        return new ResponseEntity<>(eventService.getEventsByFilter(text, categories, paid,
-                onlyAvailable, sort, rangeStart, rangeEnd, from, size, request.getRemoteAddr(), request.getRequestURI()), HttpStatus.OK);
+        return eventService.getEventsByFilter(text, categories, paid, onlyAvailable, sort, rangeStart, rangeEnd,
+                from, size, cursor, count, request.getRemoteAddr(), request.getRequestURI()).toResponseEntity();
     }
 
     @GetMapping("/events/{id}")
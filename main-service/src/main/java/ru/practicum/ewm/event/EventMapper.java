@@ -5,7 +5,6 @@ import ru.practicum.ewm.category.CategoryMapper;
 import ru.practicum.ewm.comment.dto.CommentDto;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.EventFullDtoWithComments;
-import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.dto.NewEventDto;
 import ru.practicum.ewm.event.dto.UpdateEventRequest;
 import ru.practicum.ewm.user.User;
@@ -65,21 +64,6 @@ public class EventMapper {
                 .build();
     }
 
-    public static EventShortDto mapToEventShortDto(Event event, Long views, Long confirmedRequests, Long comments) {
-        return EventShortDto.builder()
-                .id(event.getId())
-                .title(event.getTitle())
-                .annotation(event.getAnnotation())
-                .eventDate(event.getEventDate())
-                .initiator(UserMapper.mapToUserShortDto(event.getInitiator()))
-                .category(CategoryMapper.mapToCategoryDto(event.getCategory()))
-                .paid(event.getPaid())
-                .views(views)
-                .confirmedRequests(confirmedRequests)
-                .comments(comments)
-                .build();
-    }
-
     public static Event mapToEvent(User initiator, NewEventDto newEventDto, Category category) {
         return Event.builder()
                 .title(newEventDto.getTitle())
@@ -95,6 +79,8 @@ public class EventMapper {
                 .participantLimit(newEventDto.getParticipantLimit() == null ? 0 : newEventDto.getParticipantLimit())
                 .requestModeration(newEventDto.getRequestModeration() == null || newEventDto.getRequestModeration())
                 .eventState(EventState.PENDING)
+                .views(0L)
+                .confirmedRequests(0L)
                 .build();
     }
 
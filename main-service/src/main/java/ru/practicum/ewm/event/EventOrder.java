@@ -0,0 +1,116 @@
+package ru.practicum.ewm.event;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public enum EventOrder {
+    EVENT_DATE {
+        @Override
+        public OrderSpecifier<?>[] getSpecifiers() {
+            return new OrderSpecifier<?>[]{QEvent.event.eventDate.desc(), QEvent.event.id.desc()};
+        }
+
+        @Override
+        BooleanExpression after(String value, long id) {
+            LocalDateTime eventDate = LocalDateTime.parse(value);
+            return QEvent.event.eventDate.loe(eventDate)
+                    .and(QEvent.event.eventDate.lt(eventDate).or(QEvent.event.id.lt(id)));
+        }
+
+        @Override
+        String valueOf(LocalDateTime eventDate, Long views) {
+            return eventDate.toString();
+        }
+    },
+    VIEWS {
+        @Override
+        public OrderSpecifier<?>[] getSpecifiers() {
+            return new OrderSpecifier<?>[]{QEvent.event.views.desc(), QEvent.event.id.asc()};
+        }
+
+        @Override
+        BooleanExpression after(String value, long id) {
+            long views = Long.parseLong(value);
+            return QEvent.event.views.loe(views)
+                    .and(QEvent.event.views.lt(views).or(QEvent.event.id.gt(id)));
+        }
+
+        @Override
+        String valueOf(LocalDateTime eventDate, Long views) {
+            return String.valueOf(views == null ? 0 : views);
+        }
+    },
+    ID_ASC {
+        @Override
+        public OrderSpecifier<?>[] getSpecifiers() {
+            return new OrderSpecifier<?>[]{QEvent.event.id.asc()};
+        }
+
+        @Override
+        BooleanExpression after(String value, long id) {
+            return QEvent.event.id.gt(id);
+        }
+
+        @Override
+        String valueOf(LocalDateTime eventDate, Long views) {
+            return "";
+        }
+    },
+    ID_DESC {
+        @Override
+        public OrderSpecifier<?>[] getSpecifiers() {
+            return new OrderSpecifier<?>[]{QEvent.event.id.desc()};
+        }
+
+        @Override
+        BooleanExpression after(String value, long id) {
+            return QEvent.event.id.lt(id);
+        }
+
+        @Override
+        String valueOf(LocalDateTime eventDate, Long views) {
+            return "";
+        }
+    };
+
+    private static final char SEPARATOR = '|';
+
+    public abstract OrderSpecifier<?>[] getSpecifiers();
+
+    abstract BooleanExpression after(String value, long id);
+
+    abstract String valueOf(LocalDateTime eventDate, Long views);
+
+    public BooleanExpression after(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = decoded.indexOf(SEPARATOR);
+            int last = decoded.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last || !name().equals(decoded.substring(0, first))) {
+                throw new BadRequestException("Курсор не соответствует сортировке: " + cursor);
+            }
+            return after(decoded.substring(first + 1, last), Long.parseLong(decoded.substring(last + 1)));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new BadRequestException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    public String cursorOf(Event event) {
+        return cursorOf(event.getId(), event.getEventDate(), event.getViews());
+    }
+
+    public String cursorOf(EventShortDto event) {
+        return cursorOf(event.getId(), event.getEventDate(), event.getViews());
+    }
+
+    private String cursorOf(long id, LocalDateTime eventDate, Long views) {
+        String value = name() + SEPARATOR + valueOf(eventDate, views) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
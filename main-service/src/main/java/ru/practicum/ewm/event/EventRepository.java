@@ -1,18 +1,40 @@
 package ru.practicum.ewm.event;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event> {
-    Page<Event> findByInitiatorId(Long initiatorId, Pageable page);
-
+public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event>,
+        EventRepositoryCustom {
     Optional<Event> findByIdAndInitiatorId(Long id, Long initiatorId);
 
     Optional<Event> findByIdAndEventState(Long id, EventState eventState);
+
+    Slice<Event> findByEventState(EventState eventState, Pageable page);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.views = :views WHERE e.id = :id AND (e.views IS NULL OR e.views <> :views)")
+    int updateViews(@Param("id") Long id, @Param("views") Long views);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.views = 0 WHERE e.views IS NULL")
+    int initViews();
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + :count WHERE e.id = :id " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + :count <= e.participantLimit)")
+    int addConfirmedRequests(@Param("id") Long id, @Param("count") long count);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests - 1 WHERE e.id = :id " +
+            "AND e.confirmedRequests > 0")
+    int removeConfirmedRequest(@Param("id") Long id);
 }
@@ -0,0 +1,15 @@
+package ru.practicum.ewm.event;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import ru.practicum.ewm.event.dto.EventShortDto;
+
+import java.util.List;
+
+public interface EventRepositoryCustom {
+    List<Event> findPage(Predicate predicate, long offset, int limit, OrderSpecifier<?>... order);
+
+    List<EventShortDto> findShort(Predicate predicate, OrderSpecifier<?>... order);
+
+    List<EventShortDto> findShortPage(Predicate predicate, long offset, int limit, OrderSpecifier<?>... order);
+}
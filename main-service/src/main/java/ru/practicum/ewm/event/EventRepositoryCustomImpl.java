@@ -0,0 +1,77 @@
+package ru.practicum.ewm.event;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import ru.practicum.ewm.category.CategoryDto;
+import ru.practicum.ewm.category.QCategory;
+import ru.practicum.ewm.comment.QComment;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.user.QUser;
+import ru.practicum.ewm.user.UserShortDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Event> findPage(Predicate predicate, long offset, int limit, OrderSpecifier<?>... order) {
+        return new JPAQuery<Event>(entityManager)
+                .select(QEvent.event)
+                .from(QEvent.event)
+                .where(predicate)
+                .orderBy(order)
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public List<EventShortDto> findShort(Predicate predicate, OrderSpecifier<?>... order) {
+        return shortQuery()
+                .where(predicate)
+                .orderBy(order)
+                .fetch();
+    }
+
+    @Override
+    public List<EventShortDto> findShortPage(Predicate predicate, long offset, int limit, OrderSpecifier<?>... order) {
+        return shortQuery()
+                .where(predicate)
+                .orderBy(order)
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    private JPAQuery<EventShortDto> shortQuery() {
+        QEvent event = QEvent.event;
+        QUser initiator = QUser.user;
+        QCategory category = QCategory.category;
+        QComment comment = QComment.comment;
+        return new JPAQuery<Event>(entityManager)
+                .select(Projections.bean(EventShortDto.class,
+                        event.id,
+                        event.title,
+                        event.annotation,
+                        event.eventDate,
+                        Projections.bean(UserShortDto.class, initiator.id, initiator.name).as("initiator"),
+                        Projections.bean(CategoryDto.class, category.id, category.name).as("category"),
+                        event.paid,
+                        event.views,
+                        event.confirmedRequests,
+                        ExpressionUtils.as(JPAExpressions.select(comment.count())
+                                .from(comment)
+                                .where(comment.event.id.eq(event.id)), "comments")))
+                .from(event)
+                .leftJoin(event.initiator, initiator)
+                .leftJoin(event.category, category);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.ewm.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.List;
+
+@Component
+@Slf4j
+public class EventSchemaMigration {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public EventSchemaMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!columnExists("events", "id") || columnExists("events", "confirmed_requests")) {
+            return;
+        }
+        log.info("Добавление счётчика подтверждённых заявок в таблицу events");
+        transactionTemplate.executeWithoutResult(status -> addConfirmedRequests());
+    }
+
+    private boolean columnExists(String table, String column) {
+        List<Integer> found = jdbcTemplate.queryForList("SELECT 1 FROM information_schema.columns "
+                + "WHERE LOWER(table_schema) = LOWER(CURRENT_SCHEMA) AND LOWER(table_name) = ? "
+                + "AND LOWER(column_name) = ?", Integer.class, table, column);
+        return !found.isEmpty();
+    }
+
+    private void addConfirmedRequests() {
+        jdbcTemplate.execute("ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT NOT NULL DEFAULT 0");
+        int updated = jdbcTemplate.update("UPDATE events e SET confirmed_requests = (SELECT COUNT(*) FROM requests r "
+                + "WHERE r.event_id = e.id AND r.status = 'CONFIRMED') "
+                + "WHERE EXISTS (SELECT 1 FROM requests r WHERE r.event_id = e.id AND r.status = 'CONFIRMED')");
+        log.info("Счётчик подтверждённых заявок заполнен для {} событий", updated);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.ewm.event;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+public class EventSearchDialect extends PostgreSQL10Dialect {
+    private static final String SEARCH_VECTOR = "(setweight(to_tsvector('russian', coalesce(?1, '')), 'A')"
+            + " || setweight(to_tsvector('russian', coalesce(?2, '')), 'B')"
+            + " || setweight(to_tsvector('russian', coalesce(?3, '')), 'C'))";
+    private static final String SEARCH_QUERY = "websearch_to_tsquery('russian', ?4)";
+
+    public EventSearchDialect() {
+        registerFunction("fts_match", new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(" + SEARCH_VECTOR + " @@ " + SEARCH_QUERY + ")"));
+        registerFunction("fts_rank", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "ts_rank(" + SEARCH_VECTOR + ", " + SEARCH_QUERY + ")"));
+    }
+}
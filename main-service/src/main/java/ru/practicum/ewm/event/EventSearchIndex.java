@@ -0,0 +1,295 @@
+package ru.practicum.ewm.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class EventSearchIndex {
+    private static final float TITLE_WEIGHT = 3;
+    private static final float ANNOTATION_WEIGHT = 2;
+    private static final float DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final String[] ENDINGS = {
+        "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией", "ать", "ять", "ить", "ing",
+        "ая", "яя", "ое", "ее", "ые", "ие", "ой", "ей", "ий", "ый", "ов", "ев", "ам", "ям", "ах", "ях", "ом", "ем",
+        "ию", "ия", "es", "ed",
+        "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й", "s"
+    };
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private volatile boolean ready;
+
+    @Autowired
+    public EventSearchIndex(EventRepository eventRepository,
+                            @Value("${ewm.search.index.enabled}") boolean enabled,
+                            @Value("${ewm.search.index.batch-size}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Slice<Event> slice;
+        int page = 0;
+        do {
+            slice = eventRepository.findByEventState(EventState.PUBLISHED,
+                    PageRequest.of(page++, batchSize, Sort.by("id")));
+            List<Document> batch = slice.stream()
+                    .map(Document::new)
+                    .collect(Collectors.toList());
+            lock.writeLock().lock();
+            try {
+                batch.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (slice.hasNext());
+        ready = true;
+        log.info("Индекс поиска событий построен: {} событий, {} термов за {} мс", documents.size(), postings.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Event event) {
+        if (!enabled) {
+            return;
+        }
+        if (!EventState.PUBLISHED.equals(event.getEventState())) {
+            long eventId = event.getId();
+            afterCommit(() -> write(() -> remove(eventId)));
+            return;
+        }
+        Document document = new Document(event);
+        afterCommit(() -> write(() -> put(document)));
+    }
+
+    public void addConfirmed(long eventId, long count) {
+        if (enabled) {
+            afterCommit(() -> write(() -> {
+                Document document = documents.get(eventId);
+                if (document != null) {
+                    document.confirmed += count;
+                }
+            }));
+        }
+    }
+
+    public void updateViews(long eventId, long views) {
+        if (enabled) {
+            write(() -> {
+                Document document = documents.get(eventId);
+                if (document != null) {
+                    document.views = views;
+                }
+            });
+        }
+    }
+
+    public List<Long> search(String text, List<Long> categoryIds, Boolean paid, boolean onlyAvailable,
+                             EventSort sort, LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size) {
+        Comparator<Map.Entry<Document, Float>> order;
+        if (EventSort.VIEWS.equals(sort)) {
+            order = Comparator.comparing((Map.Entry<Document, Float> e) -> e.getKey().views).reversed();
+        } else if (EventSort.EVENT_DATE.equals(sort)) {
+            order = Comparator.comparing((Map.Entry<Document, Float> e) -> e.getKey().eventDate).reversed();
+        } else {
+            order = Map.Entry.<Document, Float>comparingByValue().reversed();
+        }
+        order = order.thenComparing(e -> e.getKey().id);
+        lock.readLock().lock();
+        try {
+            return matching(text, categoryIds, paid, onlyAvailable, rangeStart, rangeEnd)
+                    .sorted(order)
+                    .skip(from)
+                    .limit(size)
+                    .map(e -> e.getKey().id)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(String text, List<Long> categoryIds, Boolean paid, boolean onlyAvailable,
+                      LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        lock.readLock().lock();
+        try {
+            return matching(text, categoryIds, paid, onlyAvailable, rangeStart, rangeEnd).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Stream<Map.Entry<Document, Float>> matching(String text, List<Long> categoryIds, Boolean paid,
+                                                        boolean onlyAvailable, LocalDateTime rangeStart,
+                                                        LocalDateTime rangeEnd) {
+        LocalDateTime after = rangeStart == null && rangeEnd == null ? LocalDateTime.now() : rangeStart;
+        return score(text).entrySet().stream()
+                .filter(e -> e.getKey().matches(categoryIds, paid, onlyAvailable, after, rangeEnd));
+    }
+
+    private Map<Document, Float> score(String text) {
+        Map<Document, Float> scores = null;
+        for (String token : tokenize(text).keySet()) {
+            Map<Document, Float> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Float>> term
+                    : postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet()) {
+                double idf = Math.log(1 + (double) documents.size() / term.getValue().size());
+                term.getValue().forEach((eventId, weight) ->
+                        tokenScores.merge(documents.get(eventId), (float) ((1 + Math.log(weight)) * idf), Math::max));
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((document, score) -> score + tokenScores.get(document));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores == null ? Map.of() : scores;
+    }
+
+    private void put(Document document) {
+        remove(document.id);
+        documents.put(document.id, document);
+        document.terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                .put(document.id, weight));
+    }
+
+    private void remove(long eventId) {
+        Document document = documents.remove(eventId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(eventId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Map<String, Float> tokenize(String text) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, text, 1);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        if (text == null) {
+            return;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                terms.merge(stem(normalized.substring(start, i)), weight, Float::sum);
+                start = -1;
+            }
+        }
+    }
+
+    private static String stem(String word) {
+        for (String ending : ENDINGS) {
+            if (word.length() - ending.length() >= MIN_STEM_LENGTH && word.endsWith(ending)) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    private static class Document {
+        private final long id;
+        private final Long categoryId;
+        private final boolean paid;
+        private final LocalDateTime eventDate;
+        private final int participantLimit;
+        private final Map<String, Float> terms = new HashMap<>();
+        private long confirmed;
+        private long views;
+
+        private Document(Event event) {
+            this.id = event.getId();
+            this.categoryId = event.getCategory() == null ? null : event.getCategory().getId();
+            this.paid = Boolean.TRUE.equals(event.getPaid());
+            this.eventDate = event.getEventDate();
+            this.participantLimit = event.getParticipantLimit() == null ? 0 : event.getParticipantLimit();
+            this.confirmed = event.getConfirmedRequests() == null ? 0 : event.getConfirmedRequests();
+            this.views = event.getViews() == null ? 0 : event.getViews();
+            addTerms(terms, event.getTitle(), TITLE_WEIGHT);
+            addTerms(terms, event.getAnnotation(), ANNOTATION_WEIGHT);
+            addTerms(terms, event.getDescription(), DESCRIPTION_WEIGHT);
+        }
+
+        private boolean matches(List<Long> categoryIds, Boolean paid, boolean onlyAvailable,
+                                LocalDateTime after, LocalDateTime before) {
+            return (categoryIds == null || categoryIds.isEmpty() || categoryIds.contains(categoryId))
+                    && (paid == null || paid == this.paid)
+                    && (!onlyAvailable || participantLimit == 0 || confirmed < participantLimit)
+                    && (after == null || eventDate != null && eventDate.isAfter(after))
+                    && (before == null || eventDate != null && eventDate.isBefore(before));
+        }
+    }
+}
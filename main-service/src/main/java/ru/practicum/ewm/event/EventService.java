@@ -2,6 +2,7 @@ package ru.practicum.ewm.event;
 
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.EventFullDtoWithComments;
+import ru.practicum.ewm.event.dto.EventPage;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.dto.NewEventDto;
 import ru.practicum.ewm.event.dto.UpdateEventRequest;
@@ -10,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EventService {
-    List<EventShortDto> getUserEvents(Long userId, int from, int size);
+    EventPage<EventShortDto> getUserEvents(Long userId, int from, int size, String cursor, boolean count);
 
     EventFullDto createEvent(Long userId, NewEventDto newEventDto);
 
@@ -22,11 +23,12 @@ public interface EventService {
 
     EventFullDto updateEvent(Long eventId, UpdateEventRequest updateEventRequest);
 
-    List<EventFullDto> getEventsByFilter(List<Long> userIds, List<EventState> states,
-                                         List<Long> categoryIds, LocalDateTime rangeStart,
-                                         LocalDateTime rangeEnd, int from, int size);
+    EventPage<EventFullDto> getEventsByFilter(List<Long> userIds, List<EventState> states,
+                                              List<Long> categoryIds, LocalDateTime rangeStart,
+                                              LocalDateTime rangeEnd, int from, int size, String cursor, boolean count);
 
-    List<EventShortDto> getEventsByFilter(String text, List<Long> categoryIds, Boolean paid, boolean onlyAvailable,
-                                          EventSort sort, LocalDateTime rangeStart, LocalDateTime rangeEnd, int from,
-                                          int size, String ip, String uri);
+    EventPage<EventShortDto> getEventsByFilter(String text, List<Long> categoryIds, Boolean paid,
+                                               boolean onlyAvailable, EventSort sort, LocalDateTime rangeStart,
+                                               LocalDateTime rangeEnd, int from, int size, String cursor,
+                                               boolean count, String ip, String uri);
 }
@@ -1,45 +1,37 @@
 package ru.practicum.ewm.event;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.Expressions;
-import com.querydsl.core.types.dsl.NumberTemplate;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.category.Category;
 import ru.practicum.ewm.category.CategoryRepository;
-import ru.practicum.ewm.client.StatClient;
+import ru.practicum.ewm.client.AsyncHitReporter;
+import ru.practicum.ewm.client.EventViews;
 import ru.practicum.ewm.comment.CommentMapper;
 import ru.practicum.ewm.comment.CommentRepository;
 import ru.practicum.ewm.comment.dto.CommentDto;
 import ru.practicum.ewm.comment.dto.CountCommentByEvent;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.EventFullDtoWithComments;
+import ru.practicum.ewm.event.dto.EventPage;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.dto.NewEventDto;
 import ru.practicum.ewm.event.dto.UpdateEventRequest;
 import ru.practicum.ewm.exception.BadRequestException;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
-import ru.practicum.ewm.request.QRequest;
-import ru.practicum.ewm.request.RequestRepository;
-import ru.practicum.ewm.request.RequestStatus;
-import ru.practicum.ewm.request.dto.RequestCountByEventId;
-import ru.practicum.ewm.stat.StatDto;
 import ru.practicum.ewm.user.User;
 import ru.practicum.ewm.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -49,38 +41,20 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final RequestRepository requestRepository;
     private final CommentRepository commentRepository;
-    private final StatClient statClient;
+    private final EventViewProvider eventViewProvider;
+    private final AsyncHitReporter hitReporter;
+    private final EventTextSearch eventTextSearch;
+    private final EventSearchIndex eventSearchIndex;
 
     @Override
-    public List<EventShortDto> getUserEvents(Long userId, int from, int size) {
-        PageRequest page = PageRequest.of(from / size, size);
-        List<Event> events = eventRepository.findByInitiatorId(userId, page)
-                .stream()
-                .collect(Collectors.toList());
-        Map<Long, Long> stats;
-        if (!events.isEmpty()) {
-            stats = getViews(events, true);
-        } else {
-            stats = Collections.emptyMap();
-        }
-
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-        Map<Long, Long> confirmedRequests = requestRepository.countByUser(eventIds, RequestStatus.CONFIRMED)
-                .stream()
-                .collect(Collectors.toMap(RequestCountByEventId::getEventId, RequestCountByEventId::getCount));
-
-        Map<Long, Long> commentsCount = commentRepository.countCommentForEvents(eventIds)
-                .stream()
-                .collect(Collectors.toMap(CountCommentByEvent::getEventId, CountCommentByEvent::getCount));
-        return events.stream()
-                .map(e -> EventMapper.mapToEventShortDto(e, stats.getOrDefault(e.getId(), 0L),
-                        confirmedRequests.getOrDefault(e.getId(), 0L),
-                        commentsCount.getOrDefault(e.getId(), 0L)))
-                .collect(Collectors.toList());
+    public EventPage<EventShortDto> getUserEvents(Long userId, int from, int size, String cursor, boolean count) {
+        checkPage(from, size);
+        BooleanExpression condition = QEvent.event.initiator.id.eq(userId);
+        EventPage<EventShortDto> page = toPage(findShortPage(condition, EventOrder.ID_ASC, from, size, cursor),
+                EventOrder.ID_ASC, size, count ? eventRepository.count(condition) : null);
+        eventViewProvider.applyViews(page.getEvents(), true);
+        return page;
     }
 
     @Override
@@ -105,32 +79,29 @@ public class EventServiceImpl implements EventService {
     public EventFullDtoWithComments getUserEvent(Long userId, Long eventId, int from, int size) {
         Event event = eventRepository.findByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(ObjectNotFoundException::new);
-        Long views = getViews(List.of(event), true)
-                .getOrDefault(eventId, 0L);
+        long views = eventViewProvider.getViews(List.of(event), true).get(eventId);
         PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("created").descending());
         List<CommentDto> comments = commentRepository.findByEventId(eventId, pageRequest)
                 .stream()
                 .map(CommentMapper::mapToCommentDto)
                 .collect(Collectors.toList());
         return EventMapper.mapToEventFullDtoWithComments(event, views,
-                requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED),
-                comments);
+                event.getConfirmedRequests(), comments);
     }
 
     @Override
     public EventFullDtoWithComments getEvent(Long eventId, String ip, String uri, int from, int size) {
         Event event = eventRepository.findByIdAndEventState(eventId, EventState.PUBLISHED)
                 .orElseThrow(ObjectNotFoundException::new);
-        Long views = getViews(List.of(event), true)
-                .getOrDefault(eventId, 0L);
-        statClient.addHit("ewm-main-service", uri, ip, LocalDateTime.now());
+        long views = eventViewProvider.getViews(List.of(event), true).get(eventId);
+        hitReporter.report("ewm-main-service", uri, ip, LocalDateTime.now());
         PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("created").descending());
         List<CommentDto> comments = commentRepository.findByEventId(eventId, pageRequest)
                 .stream()
                 .map(CommentMapper::mapToCommentDto)
                 .collect(Collectors.toList());
         return EventMapper.mapToEventFullDtoWithComments(event, views,
-                requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED), comments);
+                event.getConfirmedRequests(), comments);
     }
 
     @Override
@@ -154,11 +125,10 @@ public class EventServiceImpl implements EventService {
         }
         EventMapper.mapToUpdatedEvent(event, updEvent, category);
         event = eventRepository.save(event);
-        Long views = getViews(List.of(event), true)
-                .getOrDefault(eventId, 0L);
+        eventSearchIndex.index(event);
+        long views = eventViewProvider.getViews(List.of(event), true).get(eventId);
         long comments = commentRepository.countByEventId(eventId);
-        return EventMapper.mapToEventFullDto(event, views,
-                requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED), comments);
+        return EventMapper.mapToEventFullDto(event, views, event.getConfirmedRequests(), comments);
     }
 
     @Override
@@ -192,17 +162,19 @@ public class EventServiceImpl implements EventService {
             event.setPublishedOn(LocalDateTime.now());
         }
         event = eventRepository.save(event);
-        Long views = getViews(List.of(event), true)
-                .getOrDefault(eventId, 0L);
+        eventSearchIndex.index(event);
+        long views = eventViewProvider.getViews(List.of(event), true).get(eventId);
         long comments = commentRepository.countByEventId(eventId);
-        return EventMapper.mapToEventFullDto(event, views,
-                requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED), comments);
+        return EventMapper.mapToEventFullDto(event, views, event.getConfirmedRequests(), comments);
     }
 
     @Override
-    public List<EventFullDto> getEventsByFilter(List<Long> userIds, List<EventState> states, List<Long> categoryIds,
-                                                LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size) {
-        ru.practicum.ewm.event.QEvent qEvent = ru.practicum.ewm.event.QEvent.event;
+    public EventPage<EventFullDto> getEventsByFilter(List<Long> userIds, List<EventState> states,
+                                                     List<Long> categoryIds, LocalDateTime rangeStart,
+                                                     LocalDateTime rangeEnd, int from, int size, String cursor,
+                                                     boolean count) {
+        checkPage(from, size);
+        QEvent qEvent = QEvent.event;
         List<BooleanExpression> conditions = new ArrayList<>();
         if (rangeStart != null && rangeEnd != null) {
             if (!rangeStart.isBefore(rangeEnd)) {
@@ -223,44 +195,37 @@ public class EventServiceImpl implements EventService {
         if (categoryIds != null && !categoryIds.isEmpty()) {
             conditions.add(qEvent.category.id.in(categoryIds));
         }
-        PageRequest page = PageRequest.of(from / size, size, Sort.by("id").descending());
-        Optional<BooleanExpression> finalCondition = conditions.stream()
-                .reduce(BooleanExpression::and);
-        List<Event> events = finalCondition.map(condition -> eventRepository.findAll(condition, page))
-                .orElseGet(() -> eventRepository.findAll(page))
-                .stream()
-                .collect(Collectors.toList());
+        BooleanExpression condition = conditions.stream()
+                .reduce(BooleanExpression::and)
+                .orElse(null);
+        List<Event> rows = findPage(condition, EventOrder.ID_DESC, from, size, cursor);
+        List<Event> events = rows.size() > size ? rows.subList(0, size) : rows;
 
-        Map<Long, Long> stats;
-        if (!events.isEmpty()) {
-            stats = getViews(events, true);
-        } else {
-            stats = Collections.emptyMap();
-        }
+        EventViews views = eventViewProvider.getViews(events, true);
 
         List<Long> eventIds = events.stream()
                 .map(Event::getId)
                 .collect(Collectors.toList());
-        Map<Long, Long> confirmedRequests = requestRepository.countByUser(eventIds, RequestStatus.CONFIRMED)
-                .stream()
-                .collect(Collectors.toMap(RequestCountByEventId::getEventId, RequestCountByEventId::getCount));
-
         Map<Long, Long> commentsCount = commentRepository.countCommentForEvents(eventIds)
                 .stream()
                 .collect(Collectors.toMap(CountCommentByEvent::getEventId, CountCommentByEvent::getCount));
 
-        return events.stream()
-                .map(e -> EventMapper.mapToEventFullDto(e, stats.getOrDefault(e.getId(), 0L),
-                        confirmedRequests.getOrDefault(e.getId(), 0L),
+        return new EventPage<>(events.stream()
+                .map(e -> EventMapper.mapToEventFullDto(e, views.get(e.getId()),
+                        e.getConfirmedRequests(),
                         commentsCount.getOrDefault(e.getId(), 0L)))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()),
+                rows.size() > size ? EventOrder.ID_DESC.cursorOf(events.get(size - 1)) : null,
+                !count ? null : condition == null ? eventRepository.count() : eventRepository.count(condition));
     }
 
     @Override
-    public List<EventShortDto> getEventsByFilter(String text, List<Long> categoryIds, Boolean paid, boolean onlyAvailable,
-                                                 EventSort sort, LocalDateTime rangeStart, LocalDateTime rangeEnd,
-                                                 int from, int size, String ip, String uri) {
-        ru.practicum.ewm.event.QEvent qEvent = ru.practicum.ewm.event.QEvent.event;
+    public EventPage<EventShortDto> getEventsByFilter(String text, List<Long> categoryIds, Boolean paid,
+                                                      boolean onlyAvailable, EventSort sort, LocalDateTime rangeStart,
+                                                      LocalDateTime rangeEnd, int from, int size, String cursor,
+                                                      boolean count, String ip, String uri) {
+        checkPage(from, size);
+        QEvent qEvent = QEvent.event;
         List<BooleanExpression> conditions = new ArrayList<>();
         if (rangeStart != null && rangeEnd != null) {
             if (!rangeStart.isBefore(rangeEnd)) {
@@ -275,20 +240,12 @@ public class EventServiceImpl implements EventService {
             conditions.add(qEvent.eventDate.after(LocalDateTime.now()));
         }
         if (onlyAvailable) {
-            QRequest qRequest = QRequest.request;
-
-            NumberTemplate<Long> acceptedRequestsCount = Expressions.numberTemplate(Long.class,
-                    "coalesce(count({0}), 0)", qRequest.id);
-
-            BooleanExpression maxRequestsCondition = qRequest.event.eq(qEvent)
-                    .and(qRequest.status.eq(RequestStatus.CONFIRMED))
-                    .and(acceptedRequestsCount.lt(qEvent.participantLimit));
-
-            conditions.add(maxRequestsCondition);
+            conditions.add(qEvent.participantLimit.eq(0)
+                    .or(qEvent.confirmedRequests.lt(qEvent.participantLimit)));
         }
-        if (text != null && !text.isEmpty()) {
-            conditions.add(qEvent.annotation.containsIgnoreCase(text)
-                    .or(qEvent.description.containsIgnoreCase(text)));
+        boolean textSearch = text != null && !text.isEmpty();
+        if (textSearch) {
+            conditions.add(eventTextSearch.matches(qEvent, text));
         }
         if (categoryIds != null && !categoryIds.isEmpty()) {
             conditions.add(qEvent.category.id.in(categoryIds));
@@ -302,81 +259,76 @@ public class EventServiceImpl implements EventService {
         }
 
         conditions.add(qEvent.eventState.eq(EventState.PUBLISHED));
-        Comparator<EventShortDto> comparator = Comparator.comparing(EventShortDto::getId);
-        Sort reqSort = Sort.unsorted();
-        if (EventSort.VIEWS.equals(sort)) {
-            comparator = Comparator.comparing(EventShortDto::getViews);
-        } else if (EventSort.EVENT_DATE.equals(sort)) {
-            reqSort = Sort.by("eventDate").descending();
-        }
-        PageRequest page = PageRequest.of(from / size, size, reqSort);
-        Optional<BooleanExpression> finalCondition = conditions.stream()
-                .reduce(BooleanExpression::and);
-        List<Event> events = finalCondition.map(condition -> eventRepository.findAll(condition, page))
-                .orElseGet(() -> eventRepository.findAll(page))
-                .stream()
-                .collect(Collectors.toList());
-
-
-        Map<Long, Long> stats;
-        if (!events.isEmpty()) {
-            stats = getViews(events, true);
+        boolean indexed = textSearch && cursor == null && eventSearchIndex.isReady();
+        boolean ranked = sort == null && textSearch && cursor == null && (indexed || eventTextSearch.isFullText());
+        EventOrder order = EventSort.VIEWS.equals(sort) ? EventOrder.VIEWS : EventOrder.EVENT_DATE;
+        BooleanExpression condition = conditions.stream()
+                .reduce(BooleanExpression::and)
+                .orElseThrow();
+        List<EventShortDto> events;
+        Long total = null;
+        if (indexed) {
+            List<Long> ids = eventSearchIndex.search(text, categoryIds, paid, onlyAvailable, sort, rangeStart,
+                    rangeEnd, from, size);
+            if (count) {
+                total = eventSearchIndex.count(text, categoryIds, paid, onlyAvailable, rangeStart, rangeEnd);
+            }
+            Map<Long, EventShortDto> eventsById = ids.isEmpty() ? Map.of() : eventRepository
+                    .findShort(qEvent.id.in(ids))
+                    .stream()
+                    .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+            events = ids.stream()
+                    .map(eventsById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
         } else {
-            stats = Collections.emptyMap();
+            events = ranked
+                    ? eventRepository.findShortPage(condition, from, size, eventTextSearch.relevance(qEvent, text),
+                    qEvent.id.asc())
+                    : findShortPage(condition, order, from, size, cursor);
+            if (count) {
+                total = eventRepository.count(condition);
+            }
         }
 
-        statClient.addHit("ewm-main-service", uri, ip, LocalDateTime.now());
+        hitReporter.report("ewm-main-service", uri, ip, LocalDateTime.now());
 
+        EventPage<EventShortDto> page = toPage(events, order, size, total);
+        eventViewProvider.applyViews(page.getEvents(), true);
+        return page;
+    }
 
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-        Map<Long, Long> confirmedRequests = requestRepository.countByUser(eventIds, RequestStatus.CONFIRMED)
-                .stream()
-                .collect(Collectors.toMap(RequestCountByEventId::getEventId, RequestCountByEventId::getCount));
+    private static void checkPage(int from, int size) {
+        if (from < 0) {
+            throw new BadRequestException("Смещение не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Размер страницы должен быть положительным");
+        }
+    }
 
-        Map<Long, Long> commentsCount = commentRepository.countCommentForEvents(eventIds)
-                .stream()
-                .collect(Collectors.toMap(CountCommentByEvent::getEventId, CountCommentByEvent::getCount));
+    private List<Event> findPage(BooleanExpression condition, EventOrder order, int from, int size, String cursor) {
+        if (cursor == null) {
+            return eventRepository.findPage(condition, from, size, order.getSpecifiers());
+        }
+        BooleanExpression seek = cursor.isEmpty() ? condition : order.after(cursor).and(condition);
+        return eventRepository.findPage(seek, 0, size + 1, order.getSpecifiers());
+    }
 
-        List<EventShortDto> eventShortDtos = Collections.emptyList();
-        if (EventSort.EVENT_DATE.equals(sort)) {
-            eventShortDtos = events.stream()
-                    .map(e -> EventMapper.mapToEventShortDto(e, stats.getOrDefault(e.getId(), 0L),
-                            confirmedRequests.getOrDefault(e.getId(), 0L),
-                            commentsCount.getOrDefault(e.getId(), 0L)))
-                    .collect(Collectors.toList());
-        } else {
-            eventShortDtos = events.stream()
-                    .map(e -> EventMapper.mapToEventShortDto(e, stats.getOrDefault(e.getId(), 0L),
-                            confirmedRequests.getOrDefault(e.getId(), 0L),
-                            commentsCount.getOrDefault(e.getId(), 0L)))
-                    .sorted(comparator)
-                    .collect(Collectors.toList());
+    private List<EventShortDto> findShortPage(BooleanExpression condition, EventOrder order, int from, int size,
+                                              String cursor) {
+        if (cursor == null) {
+            return eventRepository.findShortPage(condition, from, size, order.getSpecifiers());
         }
-        return eventShortDtos;
+        BooleanExpression seek = cursor.isEmpty() ? condition : order.after(cursor).and(condition);
+        return eventRepository.findShortPage(seek, 0, size + 1, order.getSpecifiers());
     }
 
-    private Map<Long, Long> getViews(List<Event> events, boolean unique) {
-        List<String> uris = new ArrayList<>();
-        LocalDateTime minDate = events.stream()
-                .peek(e -> uris.add("/events/" + e.getId()))
-                .map(Event::getCreatedOn)
-                .min((LocalDateTime::compareTo))
-                .orElseGet(LocalDateTime::now);
-        LocalDateTime maxDate = events.stream()
-                .map(Event::getEventDate)
-                .max((LocalDateTime::compareTo))
-                .orElseGet(LocalDateTime::now);
-        ResponseEntity<Object> response = statClient.getStats(minDate, maxDate, uris, unique);
-        Map<Long, Long> stats = Collections.emptyMap();
-        if (response.getBody() instanceof List<?>) {
-            ObjectMapper objectMapper = new ObjectMapper();
-            stats = ((List<?>) response.getBody()).stream()
-                    .map(o -> objectMapper.convertValue(o, StatDto.class))
-                    .filter(s -> s.getApp().equals("ewm-main-service"))
-                    .collect(Collectors.toMap(s -> Long.valueOf(s.getUri().split("/")[2]), StatDto::getHits));
+    private static EventPage<EventShortDto> toPage(List<EventShortDto> rows, EventOrder order, int size, Long total) {
+        if (rows.size() <= size) {
+            return new EventPage<>(rows, null, total);
         }
-        return stats;
+        List<EventShortDto> events = new ArrayList<>(rows.subList(0, size));
+        return new EventPage<>(events, order.cursorOf(events.get(size - 1)), total);
     }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.ewm.event;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EventTextSearch {
+    private final boolean fullText;
+
+    @Autowired
+    public EventTextSearch(@Value("${ewm.search.full-text}") boolean fullText) {
+        this.fullText = fullText;
+    }
+
+    public boolean isFullText() {
+        return fullText;
+    }
+
+    public BooleanExpression matches(QEvent event, String text) {
+        if (!fullText) {
+            return event.annotation.containsIgnoreCase(text)
+                    .or(event.description.containsIgnoreCase(text));
+        }
+        return Expressions.booleanTemplate("fts_match({0}, {1}, {2}, {3}) = true",
+                event.title, event.annotation, event.description, text);
+    }
+
+    public OrderSpecifier<Double> relevance(QEvent event, String text) {
+        return Expressions.numberTemplate(Double.class, "fts_rank({0}, {1}, {2}, {3})",
+                event.title, event.annotation, event.description, text).desc();
+    }
+}
@@ -0,0 +1,212 @@
+package ru.practicum.ewm.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.client.EventViews;
+import ru.practicum.ewm.client.StatClient;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@Slf4j
+public class EventViewCache {
+    private final StatClient statClient;
+    private final int maxSize;
+    private final long refreshAfterMs;
+    private final long expireAfterMs;
+    private final Views uniqueViews = new Views();
+    private final Views allViews = new Views();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ExecutorService refresher;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter refreshCounter;
+    private final Counter loadCounter;
+    private final Counter evictionCounter;
+
+    @Autowired
+    public EventViewCache(StatClient statClient, MeterRegistry meterRegistry,
+                          @Value("${ewm.views.cache.max-size}") int maxSize,
+                          @Value("${ewm.views.cache.refresh-after-ms}") long refreshAfterMs,
+                          @Value("${ewm.views.cache.expire-after-ms}") long expireAfterMs) {
+        this.statClient = statClient;
+        this.maxSize = maxSize;
+        this.refreshAfterMs = refreshAfterMs;
+        this.expireAfterMs = expireAfterMs;
+        this.refresher = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "event-view-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hitCounter = meterRegistry.counter("ewm.views.cache.gets", "result", "hit");
+        this.missCounter = meterRegistry.counter("ewm.views.cache.gets", "result", "miss");
+        this.refreshCounter = meterRegistry.counter("ewm.views.cache.refreshes");
+        this.loadCounter = meterRegistry.counter("ewm.views.cache.loads");
+        this.evictionCounter = meterRegistry.counter("ewm.views.cache.evictions");
+        Gauge.builder("ewm.views.cache.size", this, EventViewCache::size)
+                .description("Количество событий в кэше просмотров")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    public EventViews getViews(Collection<Long> eventIds, boolean unique) {
+        Views cache = unique ? uniqueViews : allViews;
+        EventViews result = new EventViews(eventIds.size());
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long eventId : eventIds) {
+            Entry entry = cache.entries.get(eventId);
+            if (entry == null || now - entry.loadedAt >= expireAfterMs) {
+                missing.add(eventId);
+                continue;
+            }
+            result.put(eventId, entry.views);
+            if (now - entry.loadedAt >= refreshAfterMs) {
+                stale.add(eventId);
+            }
+        }
+        hitCounter.increment(eventIds.size() - missing.size());
+        missCounter.increment(missing.size());
+        if (!stale.isEmpty()) {
+            refresh(cache, stale, unique);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<Long, CompletableFuture<Long>> pending = new HashMap<>();
+        Map<Long, CompletableFuture<Long>> claimed = claim(cache, missing, pending);
+        if (!claimed.isEmpty()) {
+            load(cache, claimed, unique);
+        }
+        pending.forEach((eventId, future) -> {
+            Long views = future.join();
+            if (views != null) {
+                result.put(eventId, views);
+            }
+        });
+        return result;
+    }
+
+    public int size() {
+        return uniqueViews.entries.size() + allViews.entries.size();
+    }
+
+    private void refresh(Views cache, List<Long> eventIds, boolean unique) {
+        Map<Long, CompletableFuture<Long>> claimed = claim(cache, eventIds, null);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        refreshCounter.increment(claimed.size());
+        try {
+            refresher.execute(() -> load(cache, claimed, unique));
+        } catch (RejectedExecutionException e) {
+            release(cache, claimed);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Long>> claim(Views cache, Collection<Long> eventIds,
+                                                     Map<Long, CompletableFuture<Long>> pending) {
+        Map<Long, CompletableFuture<Long>> claimed = new HashMap<>();
+        for (Long eventId : eventIds) {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            CompletableFuture<Long> loading = cache.loading.putIfAbsent(eventId, future);
+            if (loading == null) {
+                claimed.put(eventId, future);
+            }
+            if (pending != null) {
+                pending.put(eventId, loading == null ? future : loading);
+            }
+        }
+        return claimed;
+    }
+
+    private void load(Views cache, Map<Long, CompletableFuture<Long>> claimed, boolean unique) {
+        loadCounter.increment();
+        try {
+            Optional<EventViews> loaded = statClient.getEventViews(claimed.keySet(), unique);
+            if (loaded.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            claimed.forEach((eventId, future) -> {
+                long views = loaded.get().get(eventId);
+                cache.entries.put(eventId, new Entry(views, now));
+                future.complete(views);
+            });
+        } finally {
+            release(cache, claimed);
+        }
+        evictIfFull();
+    }
+
+    private void release(Views cache, Map<Long, CompletableFuture<Long>> claimed) {
+        claimed.forEach((eventId, future) -> {
+            cache.loading.remove(eventId, future);
+            future.complete(null);
+        });
+    }
+
+    private void evictIfFull() {
+        if (size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int before = size();
+            long now = System.currentTimeMillis();
+            for (Views cache : List.of(uniqueViews, allViews)) {
+                cache.entries.values().removeIf(entry -> now - entry.loadedAt >= expireAfterMs);
+            }
+            int target = maxSize - maxSize / 10;
+            for (Views cache : List.of(uniqueViews, allViews)) {
+                Iterator<Entry> iterator = cache.entries.values().iterator();
+                while (size() > target && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            int evicted = Math.max(before - size(), 0);
+            evictionCounter.increment(evicted);
+            log.debug("Из кэша просмотров вытеснено {} событий", evicted);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static class Views {
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<Long, CompletableFuture<Long>> loading = new ConcurrentHashMap<>();
+    }
+
+    private static class Entry {
+        private final long views;
+        private final long loadedAt;
+
+        private Entry(long views, long loadedAt) {
+            this.views = views;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
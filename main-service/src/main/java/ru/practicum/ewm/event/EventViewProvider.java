@@ -0,0 +1,41 @@
+package ru.practicum.ewm.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.client.EventViews;
+import ru.practicum.ewm.event.dto.EventShortDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class EventViewProvider {
+    private final EventViewCache eventViewCache;
+
+    public EventViews getViews(Collection<Event> events, boolean unique) {
+        if (events.isEmpty()) {
+            return new EventViews(0);
+        }
+        EventViews views = eventViewCache.getViews(events.stream()
+                .map(Event::getId)
+                .collect(Collectors.toSet()), unique);
+        events.stream()
+                .filter(e -> !views.contains(e.getId()) && e.getViews() != null)
+                .forEach(e -> views.put(e.getId(), e.getViews()));
+        return views;
+    }
+
+    public void applyViews(List<EventShortDto> events, boolean unique) {
+        if (events.isEmpty()) {
+            return;
+        }
+        EventViews views = eventViewCache.getViews(events.stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toSet()), unique);
+        events.stream()
+                .filter(e -> views.contains(e.getId()))
+                .forEach(e -> e.setViews(views.get(e.getId())));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.ewm.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.client.EventViews;
+import ru.practicum.ewm.client.StatClient;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@Slf4j
+public class EventViewSynchronizer {
+    private static final String APP = "ewm-main-service";
+    private static final String EVENT_URI_PATTERN = "/events/*";
+
+    private final EventRepository eventRepository;
+    private final StatClient statClient;
+    private final EventSearchIndex eventSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int overlapSeconds;
+    private final int batchSize;
+    private LocalDateTime lastSync;
+
+    @Autowired
+    public EventViewSynchronizer(EventRepository eventRepository, StatClient statClient,
+                                 EventSearchIndex eventSearchIndex,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${ewm.views.sync-overlap-seconds}") int overlapSeconds,
+                                 @Value("${ewm.views.sync-batch-size}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.statClient = statClient;
+        this.eventSearchIndex = eventSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.overlapSeconds = overlapSeconds;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> eventRepository.initViews());
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.sync-interval-ms}")
+    public void synchronize() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            EventViews views;
+            if (lastSync == null) {
+                views = require(statClient.getEventViews(true));
+            } else {
+                List<Long> changed = new ArrayList<>();
+                require(statClient.getEventViews(lastSync.minusSeconds(overlapSeconds), now, false))
+                        .forEach((eventId, hits) -> changed.add(eventId));
+                views = new EventViews(changed.size());
+                for (int from = 0; from < changed.size(); from += batchSize) {
+                    require(statClient.getEventViews(changed.subList(from, Math.min(from + batchSize, changed.size())),
+                            true)).forEach(views::put);
+                }
+            }
+            int[] updated = new int[1];
+            transactionTemplate.executeWithoutResult(status -> views.forEach((eventId, hits) ->
+                    updated[0] += eventRepository.updateViews(eventId, hits)));
+            views.forEach(eventSearchIndex::updateViews);
+            log.debug("Синхронизация просмотров: получено {}, обновлено событий {}", views.size(), updated[0]);
+            lastSync = now;
+        } catch (IllegalStateException e) {
+            log.warn("Не удалось синхронизировать просмотры событий: {}", e.getMessage());
+        }
+    }
+
+    private static EventViews require(Optional<EventViews> views) {
+        return views.orElseThrow(() -> new IllegalStateException("Сервер статистики недоступен"));
+    }
+}
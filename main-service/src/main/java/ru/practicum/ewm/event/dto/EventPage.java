@@ -0,0 +1,31 @@
+package ru.practicum.ewm.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class EventPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private final List<T> events;
+    private final String nextCursor;
+    private final Long total;
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.set(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        if (total != null) {
+            headers.set(TOTAL_COUNT_HEADER, String.valueOf(total));
+        }
+        return new ResponseEntity<>(events, headers, HttpStatus.OK);
+    }
+}
@@ -1,10 +1,7 @@
 package ru.practicum.ewm.request;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.ewm.request.dto.RequestCountByEventId;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,8 +10,6 @@ import java.util.Optional;
 public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findByEventIdAndEventInitiatorId(Long eventId, Long userId);
 
-    long countByEventIdAndStatus(Long eventId, RequestStatus requestStatus);
-
     List<Request> findByIdIn(List<Long> requestIds);
 
     boolean existsByRequesterIdAndEventId(Long userId, Long eventId);
@@ -23,12 +18,4 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     Optional<Request> findByRequesterId(Long userId);
 
-    @Query("SELECT NEW ru.practicum.ewm.request.dto.RequestCountByEventId(req.event.id, COUNT(req.id)) " +
-            "FROM Request req " +
-            "join req.event as event " +
-            "WHERE req.event.id IN :ids " +
-            "AND req.status = :status " +
-            "GROUP BY req.event.id")
-    List<RequestCountByEventId> countByUser(@Param("ids") List<Long> ids, @Param("status") RequestStatus status);
-
 }
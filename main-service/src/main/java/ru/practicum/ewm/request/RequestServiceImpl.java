@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.event.Event;
 import ru.practicum.ewm.event.EventRepository;
+import ru.practicum.ewm.event.EventSearchIndex;
 import ru.practicum.ewm.event.EventState;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
@@ -27,6 +28,7 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final EventSearchIndex eventSearchIndex;
 
     @Override
     public List<RequestDto> getRequestsForUserEvent(Long userId, Long eventId) {
@@ -44,7 +46,7 @@ public class RequestServiceImpl implements RequestService {
         if (event.getParticipantLimit() == 0 || !event.getRequestModeration()) {
             return new RequestStatusUpdateResultDto(Collections.emptyList(), Collections.emptyList());
         }
-        long confirmedCount = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
+        long confirmedCount = event.getConfirmedRequests();
         if (confirmedCount >= event.getParticipantLimit()) {
             throw new ConflictException();
         }
@@ -55,7 +57,7 @@ public class RequestServiceImpl implements RequestService {
             if (!RequestStatus.PENDING.equals(request.getStatus())) {
                 throw new ConflictException();
             }
-            if (confirmedCount <= event.getParticipantLimit() && RequestStatus.CONFIRMED.equals(requestStatusUpdateDto.getStatus())) {
+            if (confirmedCount < event.getParticipantLimit() && RequestStatus.CONFIRMED.equals(requestStatusUpdateDto.getStatus())) {
                 request.setStatus(RequestStatus.CONFIRMED);
                 confirmed.add(request);
                 confirmedCount++;
@@ -66,6 +68,12 @@ public class RequestServiceImpl implements RequestService {
         }
         confirmed = requestRepository.saveAll(confirmed);
         rejected = requestRepository.saveAll(rejected);
+        if (!confirmed.isEmpty()) {
+            if (eventRepository.addConfirmedRequests(eventId, confirmed.size()) == 0) {
+                throw new ConflictException();
+            }
+            eventSearchIndex.addConfirmed(eventId, confirmed.size());
+        }
         return RequestMapper.mapToRequestStatusUpdateResultDto(confirmed, rejected);
     }
 
@@ -87,7 +95,7 @@ public class RequestServiceImpl implements RequestService {
                 .orElseThrow(ObjectNotFoundException::new);
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(ObjectNotFoundException::new);
-        long confirmedCount = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
+        long confirmedCount = event.getConfirmedRequests();
         boolean isLimited = event.getParticipantLimit() > 0;
         boolean isLimitReached = isLimited && confirmedCount >= event.getParticipantLimit();
         if (event.getInitiator().getId().equals(user.getId())
@@ -102,6 +110,12 @@ public class RequestServiceImpl implements RequestService {
                 .created(LocalDateTime.now())
                 .status(!event.getRequestModeration() || !isLimited ? RequestStatus.CONFIRMED : RequestStatus.PENDING)
                 .build());
+        if (RequestStatus.CONFIRMED.equals(request.getStatus())) {
+            if (eventRepository.addConfirmedRequests(eventId, 1) == 0) {
+                throw new ConflictException();
+            }
+            eventSearchIndex.addConfirmed(eventId, 1);
+        }
         return RequestMapper.mapToRequestDto(request);
     }
 
@@ -110,8 +124,12 @@ public class RequestServiceImpl implements RequestService {
     public RequestDto cancelRequest(Long userId, Long requestId) {
         Request request = requestRepository.findByIdAndRequesterId(requestId, userId)
                 .orElseThrow(ObjectNotFoundException::new);
+        boolean wasConfirmed = RequestStatus.CONFIRMED.equals(request.getStatus());
         request.setStatus(RequestStatus.CANCELED);
         request = requestRepository.save(request);
+        if (wasConfirmed && eventRepository.removeConfirmedRequest(request.getEvent().getId()) == 1) {
+            eventSearchIndex.addConfirmed(request.getEvent().getId(), -1);
+        }
 
         return RequestMapper.mapToRequestDto(request);
     }
@@ -1,15 +0,0 @@
-package ru.practicum.ewm.request.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class RequestCountByEventId {
-    Long eventId;
-    Long count;
-}
@@ -57,8 +57,10 @@ public class UserController {
     @GetMapping("/users/{userId}/events")
     public ResponseEntity<List<EventShortDto>> findUserEvents(@PathVariable Long userId,
                                                               @RequestParam(defaultValue = "0") int from,
-                                                              @RequestParam(defaultValue = "10") int size) {
-        return new ResponseEntity<>(eventService.getUserEvents(userId, from, size), HttpStatus.OK);
+                                                              @RequestParam(defaultValue = "10") int size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "false") boolean count) {
+        return eventService.getUserEvents(userId, from, size, cursor, count).toResponseEntity();
     }
 
     @PostMapping("/users/{userId}/events")
@@ -0,0 +1,8 @@
+create INDEX IF NOT EXISTS idx_events_search ON events USING GIN ((
+    setweight(to_tsvector('russian', coalesce(title, '')), 'A')
+    || setweight(to_tsvector('russian', coalesce(annotation, '')), 'B')
+    || setweight(to_tsvector('russian', coalesce(description, '')), 'C')
+));
+
+create INDEX IF NOT EXISTS idx_events_available ON events (event_state, event_date)
+    WHERE participant_limit = 0 OR confirmed_requests < participant_limit;
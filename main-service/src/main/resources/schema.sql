@@ -30,11 +30,16 @@ create TABLE IF NOT EXISTS events (
     request_moderation BOOLEAN,
     event_state VARCHAR(15),
     views INTEGER,
+    confirmed_requests BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_events PRIMARY KEY (id),
     CONSTRAINT fk_events_to_users FOREIGN KEY(initiator_id) REFERENCES users(id),
     CONSTRAINT fk_events_to_categories FOREIGN KEY(category_id) REFERENCES categories(id) ON delete RESTRICT ON update RESTRICT
 );
 
+create INDEX IF NOT EXISTS idx_events_state_views ON events (event_state, views DESC, id);
+create INDEX IF NOT EXISTS idx_events_state_date ON events (event_state, event_date DESC, id DESC);
+create INDEX IF NOT EXISTS idx_events_initiator ON events (initiator_id, id);
+
 create TABLE IF NOT EXISTS requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     event_id BIGINT,
@@ -70,4 +75,6 @@ create TABLE IF NOT EXISTS comments (
     updated timestamp without time zone,
     CONSTRAINT fk_comments_to_events FOREIGN KEY(event_id) REFERENCES events(id),
     CONSTRAINT fk_comments_to_users FOREIGN KEY(author_id) REFERENCES users(id)
-    );
\ No newline at end of file
+    );
+
+create INDEX IF NOT EXISTS idx_comments_event ON comments (event_id);
\ No newline at end of file
@@ -0,0 +1,88 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventOrderTest {
+    private static final QEvent EVENT = QEvent.event;
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 5, 10, 18, 30, 15);
+
+    @Test
+    void eventDateCursorSeeksPastLastDateAndId() {
+        String cursor = EventOrder.EVENT_DATE.cursorOf(dto(42L, DATE, 7L));
+
+        assertThat(EventOrder.EVENT_DATE.after(cursor))
+                .isEqualTo(EVENT.eventDate.loe(DATE).and(EVENT.eventDate.lt(DATE).or(EVENT.id.lt(42L))));
+    }
+
+    @Test
+    void viewsCursorSeeksPastLastViewsAndId() {
+        String cursor = EventOrder.VIEWS.cursorOf(Event.builder().id(42L).eventDate(DATE).views(1500L).build());
+
+        assertThat(EventOrder.VIEWS.after(cursor))
+                .isEqualTo(EVENT.views.loe(1500L).and(EVENT.views.lt(1500L).or(EVENT.id.gt(42L))));
+    }
+
+    @Test
+    void missingViewsAreEncodedAsZero() {
+        String cursor = EventOrder.VIEWS.cursorOf(dto(42L, DATE, null));
+
+        assertThat(EventOrder.VIEWS.after(cursor))
+                .isEqualTo(EVENT.views.loe(0L).and(EVENT.views.lt(0L).or(EVENT.id.gt(42L))));
+    }
+
+    @Test
+    void idCursorsSeekById() {
+        assertThat(EventOrder.ID_ASC.after(EventOrder.ID_ASC.cursorOf(dto(42L, DATE, 1L))))
+                .isEqualTo(EVENT.id.gt(42L));
+        assertThat(EventOrder.ID_DESC.after(EventOrder.ID_DESC.cursorOf(dto(42L, null, null))))
+                .isEqualTo(EVENT.id.lt(42L));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = EventOrder.EVENT_DATE.cursorOf(dto(Long.MAX_VALUE, DATE, null));
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void cursorOfAnotherOrderIsRejected() {
+        String cursor = EventOrder.VIEWS.cursorOf(dto(42L, DATE, 7L));
+
+        assertThatThrownBy(() -> EventOrder.EVENT_DATE.after(cursor)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> EventOrder.ID_ASC.after(cursor)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String cursor : new String[]{"!!!", encode("EVENT_DATE"), encode("EVENT_DATE|42"),
+                encode("EVENT_DATE|вчера|42"), encode("EVENT_DATE|2024-05-10T18:30:15|x")}) {
+            assertThatThrownBy(() -> EventOrder.EVENT_DATE.after(cursor))
+                    .as(cursor)
+                    .isInstanceOf(BadRequestException.class);
+        }
+        assertThatThrownBy(() -> EventOrder.VIEWS.after(encode("VIEWS|много|42")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static EventShortDto dto(Long id, LocalDateTime eventDate, Long views) {
+        return EventShortDto.builder()
+                .id(id)
+                .eventDate(eventDate)
+                .views(views)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EventSchemaMigrationOrderTest {
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void migrationRunsBeforeSchemaScriptAndJpa() {
+        assertThat(beanFactory.getBeanDefinition("dataSourceScriptDatabaseInitializer").getDependsOn())
+                .contains("eventSchemaMigration");
+        assertThat(beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn())
+                .contains("eventSchemaMigration");
+    }
+}
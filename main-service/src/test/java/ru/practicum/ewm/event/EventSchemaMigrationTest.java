@@ -0,0 +1,66 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSchemaMigrationTest {
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "test", "test");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void legacyEventsGetCounterFilledFromConfirmedRequests() {
+        createLegacySchema();
+        jdbcTemplate.update("INSERT INTO events (id, title) VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+        jdbcTemplate.update("INSERT INTO requests (event_id, status) VALUES (1, 'CONFIRMED'), (1, 'CONFIRMED'), "
+                + "(1, 'PENDING'), (1, 'CANCELED'), (2, 'REJECTED'), (3, 'CONFIRMED')");
+
+        new EventSchemaMigration(dataSource).migrate();
+
+        assertThat(confirmed()).containsExactly(2L, 0L, 1L);
+    }
+
+    @Test
+    void backfillRunsOnlyWhenColumnIsAdded() {
+        createLegacySchema();
+        jdbcTemplate.update("INSERT INTO events (id, title) VALUES (1, 'a')");
+        jdbcTemplate.update("INSERT INTO requests (event_id, status) VALUES (1, 'CONFIRMED')");
+        new EventSchemaMigration(dataSource).migrate();
+        jdbcTemplate.update("UPDATE events SET confirmed_requests = 5");
+
+        new EventSchemaMigration(dataSource).migrate();
+
+        assertThat(confirmed()).containsExactly(5L);
+    }
+
+    @Test
+    void emptyDatabaseIsLeftToSchemaScript() {
+        new EventSchemaMigration(dataSource).migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE LOWER(table_name) = 'events'", Long.class)).isZero();
+    }
+
+    private void createLegacySchema() {
+        jdbcTemplate.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, title VARCHAR(120), "
+                + "participant_limit INTEGER)");
+        jdbcTemplate.execute("CREATE TABLE requests (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "event_id BIGINT REFERENCES events(id), status VARCHAR(10))");
+    }
+
+    private List<Long> confirmed() {
+        return jdbcTemplate.queryForList("SELECT confirmed_requests FROM events ORDER BY id", Long.class);
+    }
+}
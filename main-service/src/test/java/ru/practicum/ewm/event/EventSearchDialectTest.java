@@ -0,0 +1,60 @@
+package ru.practicum.ewm.event;
+
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.type.StandardBasicTypes;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSearchDialectTest {
+    private static final List<String> ARGUMENTS = List.of("title", "annotation", "description", "?");
+
+    private final EventSearchDialect dialect = new EventSearchDialect();
+
+    @Test
+    void matchUsesSameVectorAsSearchIndex() throws IOException {
+        String match = render("fts_match");
+
+        assertThat(normalize(match)).isEqualTo(normalize("(" + indexExpression()
+                + " @@ websearch_to_tsquery('russian', ?))"));
+    }
+
+    @Test
+    void rankUsesSameVectorAsSearchIndex() throws IOException {
+        String rank = render("fts_rank");
+
+        assertThat(normalize(rank)).isEqualTo(normalize("ts_rank(" + indexExpression()
+                + ", websearch_to_tsquery('russian', ?))"));
+        assertThat(dialect.getFunctions().get("fts_rank").getReturnType(null, null))
+                .isEqualTo(StandardBasicTypes.DOUBLE);
+    }
+
+    private String render(String function) {
+        SQLFunction sqlFunction = dialect.getFunctions().get(function);
+        assertThat(sqlFunction).as(function).isNotNull();
+        return sqlFunction.render(StandardBasicTypes.STRING, ARGUMENTS, null);
+    }
+
+    private static String indexExpression() throws IOException {
+        String schema;
+        try (InputStream in = EventSearchDialectTest.class.getResourceAsStream("/schema-postgresql.sql")) {
+            assertThat(in).isNotNull();
+            schema = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Matcher matcher = Pattern.compile("idx_events_search ON events USING GIN \\(\\((.*?)\\)\\);", Pattern.DOTALL)
+                .matcher(schema);
+        assertThat(matcher.find()).isTrue();
+        return "(" + matcher.group(1) + ")";
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", "");
+    }
+}
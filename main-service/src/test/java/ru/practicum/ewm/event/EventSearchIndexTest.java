@@ -0,0 +1,153 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import ru.practicum.ewm.category.Category;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventSearchIndexTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(10);
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final EventSearchIndex index = new EventSearchIndex(eventRepository, true, 2);
+
+    @BeforeEach
+    void setUp() {
+        List<Event> events = List.of(
+                event(1L, "Джазовый вечер", "Живая музыка", null, 1L, true, 10, 10, 5, START),
+                event(2L, "Концерт", "Джаз в парке", "Под открытым небом", 2L, false, 0, 0, 50,
+                        START.plusDays(2)),
+                event(3L, "Лекция", "Для всех", "История джаза", 1L, false, 5, 1, 1, START.plusDays(1)),
+                event(4L, "Выставка картин", "Живопись", null, 2L, false, 0, 0, 100, START));
+        when(eventRepository.findByEventState(eq(EventState.PUBLISHED), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable page = invocation.getArgument(1);
+            int from = (int) page.getOffset();
+            int to = Math.min(from + page.getPageSize(), events.size());
+            return new SliceImpl<>(events.subList(from, to), page, to < events.size());
+        });
+        index.rebuild();
+    }
+
+    @Test
+    void rebuildLoadsPublishedEventsPageByPage() {
+        assertThat(index.isReady()).isTrue();
+        verify(eventRepository).findByEventState(EventState.PUBLISHED, PageRequest.of(1, 2, Sort.by("id")));
+        assertThat(search("картин")).containsExactly(4L);
+    }
+
+    @Test
+    void wordFormsMatchAndTitleRanksFirst() {
+        assertThat(search("джаз")).containsExactly(1L, 2L, 3L);
+        assertThat(search("ДЖАЗОВЫЙ")).containsExactly(1L);
+    }
+
+    @Test
+    void allTokensMustMatch() {
+        assertThat(search("джаз парк")).containsExactly(2L);
+        assertThat(search("джаз картин")).isEmpty();
+    }
+
+    @Test
+    void filtersNarrowMatches() {
+        assertThat(index.search("джаз", List.of(1L), null, false, null, null, null, 0, 10))
+                .containsExactly(1L, 3L);
+        assertThat(index.search("джаз", null, false, false, null, null, null, 0, 10))
+                .containsExactly(2L, 3L);
+        assertThat(index.search("джаз", null, null, true, null, null, null, 0, 10))
+                .containsExactly(2L, 3L);
+        assertThat(index.search("джаз", null, null, false, null, START.plusHours(1), START.plusDays(3), 0, 10))
+                .containsExactly(2L, 3L);
+        assertThat(index.count("джаз", List.of(1L), null, true, null, null)).isEqualTo(1);
+    }
+
+    @Test
+    void pastEventsAreHiddenWithoutRange() {
+        index.index(event(5L, "Джаз вчера", null, null, 1L, false, 0, 0, 0, LocalDateTime.now().minusDays(1)));
+
+        assertThat(search("джаз")).doesNotContain(5L);
+        assertThat(index.search("джаз", null, null, false, null, LocalDateTime.now().minusDays(2), null, 0, 10))
+                .contains(5L);
+    }
+
+    @Test
+    void sortsByViewsAndEventDateThenPages() {
+        assertThat(index.search("джаз", null, null, false, EventSort.VIEWS, null, null, 0, 10))
+                .containsExactly(2L, 1L, 3L);
+        assertThat(index.search("джаз", null, null, false, EventSort.EVENT_DATE, null, null, 0, 10))
+                .containsExactly(2L, 3L, 1L);
+        assertThat(index.search("джаз", null, null, false, EventSort.VIEWS, null, null, 1, 1))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void confirmedRequestsAndViewsUpdateDocuments() {
+        index.addConfirmed(1L, -1);
+        index.addConfirmed(3L, 4);
+        index.updateViews(3L, 1000);
+
+        assertThat(index.search("джаз", null, null, true, null, null, null, 0, 10)).containsExactly(1L, 2L);
+        assertThat(index.search("джаз", null, null, false, EventSort.VIEWS, null, null, 0, 10))
+                .containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void reindexReplacesTermsAndUnpublishedEventsAreRemoved() {
+        index.index(event(1L, "Рок вечер", "Живая музыка", null, 1L, true, 10, 10, 5, START));
+        Event canceled = event(2L, "Концерт", "Джаз в парке", null, 2L, false, 0, 0, 50, START);
+        canceled.setEventState(EventState.CANCELED);
+        index.index(canceled);
+
+        assertThat(search("джаз")).containsExactly(3L);
+        assertThat(search("рок")).containsExactly(1L);
+        assertThat(search("парк")).isEmpty();
+    }
+
+    @Test
+    void disabledIndexDoesNotLoadEvents() {
+        EventRepository repository = mock(EventRepository.class);
+        EventSearchIndex disabled = new EventSearchIndex(repository, false, 2);
+
+        disabled.rebuild();
+        disabled.index(event(1L, "Джаз", null, null, 1L, false, 0, 0, 0, START));
+
+        assertThat(disabled.isReady()).isFalse();
+        assertThat(disabled.search("джаз", null, null, false, null, null, null, 0, 10)).isEmpty();
+        verify(repository, never()).findByEventState(any(), any());
+    }
+
+    private List<Long> search(String text) {
+        return index.search(text, null, null, false, null, null, null, 0, 10);
+    }
+
+    private static Event event(Long id, String title, String annotation, String description, Long categoryId,
+                               boolean paid, int participantLimit, long confirmed, long views,
+                               LocalDateTime eventDate) {
+        return Event.builder()
+                .id(id)
+                .title(title)
+                .annotation(annotation)
+                .description(description)
+                .category(Category.builder().id(categoryId).build())
+                .paid(paid)
+                .participantLimit(participantLimit)
+                .confirmedRequests(confirmed)
+                .views(views)
+                .eventDate(eventDate)
+                .eventState(EventState.PUBLISHED)
+                .build();
+    }
+}
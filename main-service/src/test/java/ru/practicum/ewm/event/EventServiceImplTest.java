@@ -0,0 +1,151 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.category.Category;
+import ru.practicum.ewm.category.CategoryRepository;
+import ru.practicum.ewm.client.AsyncHitReporter;
+import ru.practicum.ewm.client.EventViews;
+import ru.practicum.ewm.comment.CommentRepository;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.dto.EventPage;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.exception.BadRequestException;
+import ru.practicum.ewm.user.User;
+import ru.practicum.ewm.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EventServiceImplTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2030, 5, 10, 18, 0);
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final EventViewProvider eventViewProvider = mock(EventViewProvider.class);
+    private final EventService eventService = new EventServiceImpl(eventRepository, mock(UserRepository.class),
+            mock(CategoryRepository.class), commentRepository, eventViewProvider, mock(AsyncHitReporter.class),
+            new EventTextSearch(false), mock(EventSearchIndex.class));
+
+    @Test
+    void cursorIsReturnedOnlyWhenAnotherRowExists() {
+        when(eventRepository.findShortPage(any(), eq(0L), eq(4), any())).thenReturn(shorts(1, 4));
+
+        EventPage<EventShortDto> page = eventService.getUserEvents(1L, 0, 3, "", false);
+
+        assertThat(page.getEvents()).extracting(EventShortDto::getId).containsExactly(1L, 2L, 3L);
+        assertThat(page.getNextCursor()).isEqualTo(EventOrder.ID_ASC.cursorOf(page.getEvents().get(2)));
+    }
+
+    @Test
+    void fullLastPageHasNoCursor() {
+        when(eventRepository.findShortPage(any(), eq(0L), eq(4), any())).thenReturn(shorts(4, 6));
+
+        EventPage<EventShortDto> page = eventService.getUserEvents(1L, 0, 3,
+                EventOrder.ID_ASC.cursorOf(EventShortDto.builder().id(3L).build()), false);
+
+        assertThat(page.getEvents()).extracting(EventShortDto::getId).containsExactly(4L, 5L, 6L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void offsetPagingReturnsNoCursor() {
+        when(eventRepository.findShortPage(any(), eq(6L), eq(3), any())).thenReturn(shorts(7, 9));
+
+        EventPage<EventShortDto> page = eventService.getUserEvents(1L, 6, 3, null, false);
+
+        assertThat(page.getEvents()).hasSize(3);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void viewsAreAppliedOnlyToReturnedRows() {
+        when(eventRepository.findShortPage(any(), eq(0L), eq(3), any())).thenReturn(shorts(1, 3));
+
+        EventPage<EventShortDto> page = eventService.getUserEvents(1L, 0, 2, "", false);
+
+        verify(eventViewProvider).applyViews(page.getEvents(), true);
+        assertThat(page.getEvents()).hasSize(2);
+    }
+
+    @Test
+    void adminPageFetchesOneExtraRowForCursor() {
+        when(eventRepository.findPage(any(), eq(0L), eq(3), any())).thenReturn(events(10, 8));
+        when(eventViewProvider.getViews(anyCollection(), anyBoolean())).thenReturn(new EventViews());
+
+        EventPage<EventFullDto> page = eventService.getEventsByFilter(null, null, null, null, null, 0, 2, "", false);
+
+        assertThat(page.getEvents()).extracting(EventFullDto::getId).containsExactly(10L, 9L);
+        assertThat(page.getNextCursor()).isEqualTo(EventOrder.ID_DESC.cursorOf(Event.builder().id(9L).build()));
+        verify(eventViewProvider).getViews(List.of(events(10, 8).get(0), events(10, 8).get(1)), true);
+        verify(commentRepository).countCommentForEvents(List.of(10L, 9L));
+    }
+
+    @Test
+    void adminLastPageHasNoCursor() {
+        when(eventRepository.findPage(any(), anyLong(), anyInt(), any())).thenReturn(events(2, 1));
+        when(eventViewProvider.getViews(anyCollection(), anyBoolean())).thenReturn(new EventViews());
+
+        EventPage<EventFullDto> page = eventService.getEventsByFilter(null, null, null, null, null, 0, 2,
+                EventOrder.ID_DESC.cursorOf(Event.builder().id(3L).build()), false);
+
+        assertThat(page.getEvents()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void nonPositiveSizeIsBadRequestOnEveryPagedEndpoint() {
+        for (int size : new int[]{0, -1}) {
+            assertThatThrownBy(() -> eventService.getUserEvents(1L, 0, size, "", false))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> eventService.getEventsByFilter(null, null, null, null, null, 0, size, "", false))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> eventService.getEventsByFilter(null, null, null, false, null, null, null, 0,
+                    size, "", false, "10.0.0.1", "/events")).isInstanceOf(BadRequestException.class);
+        }
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void negativeOffsetIsBadRequest() {
+        assertThatThrownBy(() -> eventService.getUserEvents(1L, -1, 10, null, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> eventService.getEventsByFilter(null, null, null, false, null, null, null, -1, 10,
+                null, false, "10.0.0.1", "/events")).isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(eventRepository);
+    }
+
+    private static List<EventShortDto> shorts(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(id -> EventShortDto.builder().id(id).eventDate(DATE).build())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Event> events(long from, long to) {
+        return LongStream.iterate(from, id -> id >= to, id -> id - 1)
+                .mapToObj(id -> Event.builder()
+                        .id(id)
+                        .title("Событие " + id)
+                        .eventDate(DATE)
+                        .initiator(User.builder().id(1L).build())
+                        .category(Category.builder().id(1L).name("Концерты").build())
+                        .confirmedRequests(0L)
+                        .eventState(EventState.PUBLISHED)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
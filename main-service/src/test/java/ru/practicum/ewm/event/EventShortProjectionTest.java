@@ -0,0 +1,121 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.category.Category;
+import ru.practicum.ewm.category.CategoryMapper;
+import ru.practicum.ewm.comment.Comment;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.user.User;
+import ru.practicum.ewm.user.UserMapper;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class EventShortProjectionTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2030, 5, 10, 18, 30, 15);
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void projectionMatchesEntityMapping() {
+        User initiator = persist(User.builder().name("Организатор").email("projection@ewm.ru").build());
+        User reader = persist(User.builder().name("Читатель").email("projection-reader@ewm.ru").build());
+        Category category = persist(Category.builder().name("Проекция").build());
+        Event commented = persist(event("Джазовый вечер", initiator, category, true, 1500L));
+        Event quiet = persist(event("Лекция", initiator, category, false, 0L));
+        Event bare = persist(event("Без просмотров", initiator, category, null, null));
+        for (int i = 0; i < 3; i++) {
+            persist(Comment.builder().event(commented).author(reader).text("Комментарий " + i).build());
+        }
+        entityManager.createQuery("UPDATE Event e SET e.confirmedRequests = 4 WHERE e.id = :id")
+                .setParameter("id", commented.getId())
+                .executeUpdate();
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = List.of(commented.getId(), quiet.getId(), bare.getId());
+        List<EventShortDto> projected = eventRepository.findShort(QEvent.event.id.in(ids), QEvent.event.id.asc());
+
+        List<EventShortDto> expected = ids.stream()
+                .map(id -> eventRepository.findById(id).orElseThrow())
+                .map(event -> mapToEventShortDto(event, event.getViews(), event.getConfirmedRequests(),
+                        commentCount(event.getId())))
+                .collect(Collectors.toList());
+        assertThat(projected).isEqualTo(expected);
+        assertThat(projected.get(0).getComments()).isEqualTo(3);
+        assertThat(projected.get(0).getConfirmedRequests()).isEqualTo(4);
+        assertThat(projected.get(2).getViews()).isNull();
+    }
+
+    @Test
+    void projectedPageKeepsRequestedOrder() {
+        User initiator = persist(User.builder().name("Организатор").email("projection-order@ewm.ru").build());
+        Category category = persist(Category.builder().name("Проекция порядок").build());
+        Event first = persist(event("Первое", initiator, category, false, 30L));
+        Event second = persist(event("Второе", initiator, category, false, 20L));
+        Event third = persist(event("Третье", initiator, category, false, 10L));
+        entityManager.flush();
+
+        List<EventShortDto> page = eventRepository.findShortPage(
+                QEvent.event.id.in(first.getId(), second.getId(), third.getId()), 1, 2,
+                EventOrder.VIEWS.getSpecifiers());
+
+        assertThat(page).extracting(EventShortDto::getId).containsExactly(second.getId(), third.getId());
+    }
+
+    private static EventShortDto mapToEventShortDto(Event event, Long views, Long confirmedRequests, Long comments) {
+        return EventShortDto.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .annotation(event.getAnnotation())
+                .eventDate(event.getEventDate())
+                .initiator(UserMapper.mapToUserShortDto(event.getInitiator()))
+                .category(CategoryMapper.mapToCategoryDto(event.getCategory()))
+                .paid(event.getPaid())
+                .views(views)
+                .confirmedRequests(confirmedRequests)
+                .comments(comments)
+                .build();
+    }
+
+    private long commentCount(Long eventId) {
+        return entityManager.createQuery("SELECT COUNT(c) FROM Comment c WHERE c.event.id = :id", Long.class)
+                .setParameter("id", eventId)
+                .getSingleResult();
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private static Event event(String title, User initiator, Category category, Boolean paid, Long views) {
+        return Event.builder()
+                .title(title)
+                .annotation("Аннотация: " + title)
+                .description("Описание: " + title)
+                .eventDate(DATE)
+                .initiator(initiator)
+                .category(category)
+                .paid(paid)
+                .participantLimit(10)
+                .requestModeration(true)
+                .eventState(EventState.PUBLISHED)
+                .createdOn(DATE.minusDays(30))
+                .views(views)
+                .confirmedRequests(0L)
+                .build();
+    }
+}
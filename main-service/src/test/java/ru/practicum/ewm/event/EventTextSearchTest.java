@@ -0,0 +1,39 @@
+package ru.practicum.ewm.event;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventTextSearchTest {
+    private final QEvent event = QEvent.event;
+
+    @Test
+    void withoutFullTextMatchesAnnotationOrDescriptionIgnoringCase() {
+        EventTextSearch search = new EventTextSearch(false);
+
+        assertThat(search.isFullText()).isFalse();
+        assertThat(search.matches(event, "джаз"))
+                .isEqualTo(event.annotation.containsIgnoreCase("джаз")
+                        .or(event.description.containsIgnoreCase("джаз")));
+    }
+
+    @Test
+    void fullTextMatchesWeightedVectorOfAllTextFields() {
+        EventTextSearch search = new EventTextSearch(true);
+
+        assertThat(search.isFullText()).isTrue();
+        assertThat(search.matches(event, "джаз").toString())
+                .isEqualTo("fts_match(event.title, event.annotation, event.description, джаз) = true");
+    }
+
+    @Test
+    void relevanceOrdersByRankDescending() {
+        OrderSpecifier<Double> relevance = new EventTextSearch(true).relevance(event, "джаз");
+
+        assertThat(relevance.getOrder()).isEqualTo(Order.DESC);
+        assertThat(relevance.getTarget().toString())
+                .isEqualTo("fts_rank(event.title, event.annotation, event.description, джаз)");
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.ewm.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.client.EventViews;
+import ru.practicum.ewm.client.StatClient;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventViewCacheTest {
+    private final StatClient statClient = mock(StatClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Set<Long>> requests = new CopyOnWriteArrayList<>();
+    private final AtomicLong served = new AtomicLong(10);
+    private EventViewCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.stop();
+        }
+    }
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        serveViews();
+        cache = cache(100, 60_000, 60_000);
+
+        EventViews first = cache.getViews(List.of(1L, 2L), true);
+        EventViews second = cache.getViews(List.of(2L, 1L), true);
+
+        assertThat(first.get(1)).isEqualTo(10);
+        assertThat(second.get(1)).isEqualTo(10);
+        assertThat(second.get(2)).isEqualTo(10);
+        assertThat(requests).containsExactly(Set.of(1L, 2L));
+        assertThat(meterRegistry.counter("ewm.views.cache.gets", "result", "hit").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("ewm.views.cache.gets", "result", "miss").count()).isEqualTo(2);
+    }
+
+    @Test
+    void uniqueAndAllViewsAreCachedSeparately() {
+        serveViews();
+        cache = cache(100, 60_000, 60_000);
+
+        cache.getViews(List.of(1L), true);
+        served.set(20);
+        EventViews all = cache.getViews(List.of(1L), false);
+
+        assertThat(all.get(1)).isEqualTo(20);
+        assertThat(cache.getViews(List.of(1L), true).get(1)).isEqualTo(10);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void staleEntryIsReturnedAndRefreshedInBackground() throws InterruptedException {
+        serveViews();
+        cache = cache(100, 50, 60_000);
+        cache.getViews(List.of(1L), true);
+        served.set(20);
+        Thread.sleep(60);
+
+        assertThat(cache.getViews(List.of(1L), true).get(1)).isEqualTo(10);
+
+        awaitRequests(2);
+        assertThat(cache.getViews(List.of(1L), true).get(1)).isEqualTo(20);
+        assertThat(meterRegistry.counter("ewm.views.cache.refreshes").count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsLoadedAgainBeforeReturning() throws InterruptedException {
+        serveViews();
+        cache = cache(100, 50, 50);
+        cache.getViews(List.of(1L), true);
+        served.set(20);
+        Thread.sleep(60);
+
+        assertThat(cache.getViews(List.of(1L), true).get(1)).isEqualTo(20);
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        when(statClient.getEventViews(anyCollection(), anyBoolean())).thenReturn(Optional.empty());
+        cache = cache(100, 60_000, 60_000);
+
+        EventViews views = cache.getViews(List.of(1L), true);
+
+        assertThat(views.contains(1)).isFalse();
+        assertThat(cache.size()).isZero();
+        serveViews();
+        assertThat(cache.getViews(List.of(1L), true).get(1)).isEqualTo(10);
+    }
+
+    @Test
+    void cacheIsTrimmedBelowMaxSize() {
+        serveViews();
+        cache = cache(10, 60_000, 60_000);
+
+        cache.getViews(LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toList()), true);
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(meterRegistry.counter("ewm.views.cache.evictions").count()).isEqualTo(25 - cache.size());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statClient.getEventViews(anyCollection(), anyBoolean())).thenAnswer(invocation -> {
+            requests.add(Set.copyOf(invocation.<Collection<Long>>getArgument(0)));
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(views(invocation.getArgument(0), 10));
+        });
+        cache = cache(100, 60_000, 60_000);
+
+        CompletableFuture<EventViews> first = CompletableFuture.supplyAsync(() -> cache.getViews(List.of(1L), true));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<EventViews> second = CompletableFuture.supplyAsync(() -> cache.getViews(List.of(1L), true));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).get(1)).isEqualTo(10);
+        assertThat(second.get(5, TimeUnit.SECONDS).get(1)).isEqualTo(10);
+        assertThat(requests).hasSize(1);
+    }
+
+    private void serveViews() {
+        when(statClient.getEventViews(anyCollection(), anyBoolean())).thenAnswer(invocation -> {
+            requests.add(Set.copyOf(invocation.<Collection<Long>>getArgument(0)));
+            return Optional.of(views(invocation.getArgument(0), served.get()));
+        });
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requests.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(20);
+    }
+
+    private EventViewCache cache(int maxSize, long refreshAfterMs, long expireAfterMs) {
+        return new EventViewCache(statClient, meterRegistry, maxSize, refreshAfterMs, expireAfterMs);
+    }
+
+    private static EventViews views(Collection<Long> eventIds, long value) {
+        EventViews views = new EventViews(eventIds.size());
+        eventIds.forEach(eventId -> views.put(eventId, value));
+        return views;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.ewm.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.client.EventViews;
+import ru.practicum.ewm.client.StatClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventViewSynchronizerTest {
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final StatClient statClient = mock(StatClient.class);
+    private final EventSearchIndex eventSearchIndex = mock(EventSearchIndex.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final EventViewSynchronizer synchronizer = new EventViewSynchronizer(eventRepository, statClient,
+            eventSearchIndex, transactionTemplate, 60, 1);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(eventRepository.updateViews(anyLong(), anyLong())).thenReturn(1);
+    }
+
+    @Test
+    void firstSyncLoadsAllTimeTotalsForEveryEvent() {
+        when(statClient.getEventViews(true)).thenReturn(views(Map.of(1L, 5L, 2L, 0L)));
+
+        synchronizer.synchronize();
+
+        verify(eventRepository).updateViews(1L, 5L);
+        verify(eventRepository).updateViews(2L, 0L);
+        verify(eventSearchIndex).updateViews(1L, 5L);
+        verify(statClient, never()).getEventViews(any(LocalDateTime.class), any(), anyBoolean());
+    }
+
+    @Test
+    void laterSyncRefreshesOnlyEventsHitSinceLastSync() {
+        when(statClient.getEventViews(true)).thenReturn(views(Map.of(1L, 5L)));
+        synchronizer.synchronize();
+        LocalDateTime firstSync = LocalDateTime.now();
+        when(statClient.getEventViews(any(LocalDateTime.class), any(), eq(false)))
+                .thenReturn(views(Map.of(3L, 2L, 4L, 1L)));
+        when(statClient.getEventViews(List.of(3L), true)).thenReturn(views(Map.of(3L, 7L)));
+        when(statClient.getEventViews(List.of(4L), true)).thenReturn(views(Map.of(4L, 9L)));
+
+        synchronizer.synchronize();
+
+        ArgumentCaptor<LocalDateTime> start = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(statClient).getEventViews(start.capture(), any(), eq(false));
+        assertThat(start.getValue()).isBefore(firstSync.minusSeconds(59));
+        verify(eventRepository).updateViews(3L, 7L);
+        verify(eventRepository).updateViews(4L, 9L);
+        verify(eventRepository, times(1)).updateViews(1L, 5L);
+    }
+
+    @Test
+    void failedSyncIsRetriedFromTheSameWindow() {
+        when(statClient.getEventViews(true)).thenReturn(views(Map.of(1L, 5L)));
+        synchronizer.synchronize();
+        when(statClient.getEventViews(any(LocalDateTime.class), any(), eq(false)))
+                .thenReturn(Optional.empty())
+                .thenReturn(views(Map.of()));
+
+        synchronizer.synchronize();
+        synchronizer.synchronize();
+
+        ArgumentCaptor<LocalDateTime> start = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(statClient, times(2)).getEventViews(start.capture(), any(), eq(false));
+        assertThat(start.getAllValues().get(1)).isEqualTo(start.getAllValues().get(0));
+    }
+
+    @Test
+    void failedBatchLeavesViewsUntouched() {
+        when(statClient.getEventViews(true)).thenReturn(views(Map.of(1L, 5L)));
+        synchronizer.synchronize();
+        when(statClient.getEventViews(any(LocalDateTime.class), any(), eq(false)))
+                .thenReturn(views(Map.of(3L, 2L, 4L, 1L)));
+        when(statClient.getEventViews(List.of(3L), true)).thenReturn(views(Map.of(3L, 7L)));
+        when(statClient.getEventViews(List.of(4L), true)).thenReturn(Optional.empty());
+
+        synchronizer.synchronize();
+
+        verify(eventRepository, never()).updateViews(eq(3L), anyLong());
+        verify(eventSearchIndex, never()).updateViews(eq(3L), anyLong());
+    }
+
+    @Test
+    void unavailableServerLeavesViewsUntouched() {
+        when(statClient.getEventViews(true)).thenReturn(Optional.empty());
+
+        synchronizer.synchronize();
+
+        verify(eventRepository, never()).updateViews(anyLong(), anyLong());
+        verify(eventSearchIndex, never()).updateViews(anyLong(), anyLong());
+    }
+
+    private static Optional<EventViews> views(Map<Long, Long> hits) {
+        EventViews views = new EventViews();
+        hits.forEach(views::put);
+        return Optional.of(views);
+    }
+}
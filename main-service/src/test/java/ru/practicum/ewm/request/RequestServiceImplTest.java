@@ -0,0 +1,165 @@
+package ru.practicum.ewm.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.event.Event;
+import ru.practicum.ewm.event.EventRepository;
+import ru.practicum.ewm.event.EventSearchIndex;
+import ru.practicum.ewm.event.EventState;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.request.dto.RequestStatusUpdateDto;
+import ru.practicum.ewm.request.dto.RequestStatusUpdateResultDto;
+import ru.practicum.ewm.user.User;
+import ru.practicum.ewm.user.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestServiceImplTest {
+    private final RequestRepository requestRepository = mock(RequestRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final EventSearchIndex eventSearchIndex = mock(EventSearchIndex.class);
+    private final RequestService requestService = new RequestServiceImpl(requestRepository, eventRepository,
+            userRepository, eventSearchIndex);
+    private final User initiator = User.builder().id(1L).build();
+    private final User requester = User.builder().id(2L).build();
+
+    @BeforeEach
+    void setUp() {
+        when(requestRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(requestRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void cancelingConfirmedRequestDecrementsCounterAndIndex() {
+        Event event = event(10, 3, true);
+        when(requestRepository.findByIdAndRequesterId(5L, 2L))
+                .thenReturn(Optional.of(request(5L, event, RequestStatus.CONFIRMED)));
+        when(eventRepository.removeConfirmedRequest(7L)).thenReturn(1);
+
+        assertThat(requestService.cancelRequest(2L, 5L).getStatus()).isEqualTo(RequestStatus.CANCELED);
+
+        verify(eventSearchIndex).addConfirmed(7L, -1);
+    }
+
+    @Test
+    void indexIsNotDecrementedWhenCounterWasNotUpdated() {
+        Event event = event(10, 0, true);
+        when(requestRepository.findByIdAndRequesterId(5L, 2L))
+                .thenReturn(Optional.of(request(5L, event, RequestStatus.CONFIRMED)));
+        when(eventRepository.removeConfirmedRequest(7L)).thenReturn(0);
+
+        requestService.cancelRequest(2L, 5L);
+
+        verify(eventSearchIndex, never()).addConfirmed(anyLong(), anyLong());
+    }
+
+    @Test
+    void cancelingPendingRequestLeavesCounterAlone() {
+        Event event = event(10, 3, true);
+        when(requestRepository.findByIdAndRequesterId(5L, 2L))
+                .thenReturn(Optional.of(request(5L, event, RequestStatus.PENDING)));
+
+        requestService.cancelRequest(2L, 5L);
+
+        verify(eventRepository, never()).removeConfirmedRequest(anyLong());
+        verify(eventSearchIndex, never()).addConfirmed(anyLong(), anyLong());
+    }
+
+    @Test
+    void autoConfirmedRequestIsRejectedWhenGuardedIncrementFails() {
+        Event event = event(2, 1, false);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(requester));
+        when(eventRepository.findById(7L)).thenReturn(Optional.of(event));
+        when(eventRepository.addConfirmedRequests(7L, 1)).thenReturn(0);
+
+        assertThatThrownBy(() -> requestService.addRequest(2L, 7L)).isInstanceOf(ConflictException.class);
+
+        verify(eventSearchIndex, never()).addConfirmed(anyLong(), anyLong());
+    }
+
+    @Test
+    void autoConfirmedRequestIncrementsCounterAndIndex() {
+        Event event = event(2, 1, false);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(requester));
+        when(eventRepository.findById(7L)).thenReturn(Optional.of(event));
+        when(eventRepository.addConfirmedRequests(7L, 1)).thenReturn(1);
+
+        assertThat(requestService.addRequest(2L, 7L).getStatus()).isEqualTo(RequestStatus.CONFIRMED);
+
+        verify(eventSearchIndex).addConfirmed(7L, 1);
+    }
+
+    @Test
+    void requestIsRefusedWhenLimitIsReached() {
+        Event event = event(2, 2, false);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(requester));
+        when(eventRepository.findById(7L)).thenReturn(Optional.of(event));
+
+        assertThatThrownBy(() -> requestService.addRequest(2L, 7L)).isInstanceOf(ConflictException.class);
+
+        verify(requestRepository, never()).save(any());
+    }
+
+    @Test
+    void moderationConfirmsUpToLimitAndRejectsTheRest() {
+        Event event = event(2, 1, true);
+        when(eventRepository.findById(7L)).thenReturn(Optional.of(event));
+        when(requestRepository.findByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                request(1L, event, RequestStatus.PENDING),
+                request(2L, event, RequestStatus.PENDING),
+                request(3L, event, RequestStatus.PENDING)));
+        when(eventRepository.addConfirmedRequests(7L, 1)).thenReturn(1);
+
+        RequestStatusUpdateResultDto result = requestService.changeUserEventRequestsStatus(1L, 7L,
+                new RequestStatusUpdateDto(List.of(1L, 2L, 3L), RequestStatus.CONFIRMED));
+
+        assertThat(result.getConfirmedRequests()).hasSize(1);
+        assertThat(result.getRejectedRequests()).hasSize(2);
+        verify(eventSearchIndex).addConfirmed(7L, 1);
+    }
+
+    @Test
+    void moderationFailsWhenConcurrentConfirmationFilledEvent() {
+        Event event = event(2, 0, true);
+        when(eventRepository.findById(7L)).thenReturn(Optional.of(event));
+        when(requestRepository.findByIdIn(List.of(1L))).thenReturn(List.of(request(1L, event, RequestStatus.PENDING)));
+        when(eventRepository.addConfirmedRequests(7L, 1)).thenReturn(0);
+
+        assertThatThrownBy(() -> requestService.changeUserEventRequestsStatus(1L, 7L,
+                new RequestStatusUpdateDto(List.of(1L), RequestStatus.CONFIRMED)))
+                .isInstanceOf(ConflictException.class);
+
+        verify(eventSearchIndex, never()).addConfirmed(anyLong(), anyLong());
+    }
+
+    private Event event(int participantLimit, long confirmed, boolean moderation) {
+        return Event.builder()
+                .id(7L)
+                .initiator(initiator)
+                .participantLimit(participantLimit)
+                .confirmedRequests(confirmed)
+                .requestModeration(moderation)
+                .eventState(EventState.PUBLISHED)
+                .build();
+    }
+
+    private Request request(Long id, Event event, RequestStatus status) {
+        return Request.builder()
+                .id(id)
+                .event(event)
+                .requester(requester)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.ewm.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.ewm.hit.HitBatchResultDto;
+import ru.practicum.ewm.hit.HitDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class AsyncHitReporter {
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private final StatClient statClient;
+    private final HitSpool hitSpool;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final HitOverflowPolicy overflowPolicy;
+    private final BlockingQueue<HitDto> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread flusher;
+    private volatile boolean running;
+
+    @Autowired
+    public AsyncHitReporter(StatClient statClient, HitSpool hitSpool, ObjectMapper objectMapper,
+                            @Value("${ewm-stat-server.hits.capacity}") int capacity,
+                            @Value("${ewm-stat-server.hits.batch-size}") int batchSize,
+                            @Value("${ewm-stat-server.hits.flush-interval-ms}") long flushIntervalMs,
+                            @Value("${ewm-stat-server.hits.overflow-policy}") HitOverflowPolicy overflowPolicy) {
+        this.statClient = statClient;
+        this.hitSpool = hitSpool;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flusher = new Thread(this::run, "stat-hit-reporter");
+        this.flusher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join();
+        List<HitDto> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch, false);
+            batch.clear();
+        }
+        if (dropped.get() > 0) {
+            log.warn("За время работы отброшено {} просмотров", dropped.get());
+        }
+        log.info("Отправка просмотров остановлена");
+    }
+
+    public void report(String app, String uri, String ip, LocalDateTime timestamp) {
+        HitDto hitDto = HitDto.builder()
+                .app(app)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(timestamp)
+                .build();
+        if (running && queue.offer(hitDto)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (running && !queue.offer(hitDto)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                if (running) {
+                    return;
+                }
+                break;
+            case SYNC:
+                send(List.of(hitDto), false);
+                return;
+            case SPOOL:
+                if (hitSpool.append(List.of(hitDto))) {
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        if (dropped.incrementAndGet() % 1000 == 1) {
+            log.warn("Очередь просмотров переполнена, всего отброшено {}", dropped.get());
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void run() {
+        List<HitDto> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                HitDto first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    HitDto next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    send(batch, true);
+                } catch (RuntimeException e) {
+                    dropped.addAndGet(batch.size());
+                    log.error("Пакет из {} просмотров не отправлен из-за непредвиденной ошибки", batch.size(), e);
+                }
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+    }
+
+    private void send(List<HitDto> batch, boolean retry) {
+        long delay = flushIntervalMs;
+        while (true) {
+            try {
+                ResponseEntity<Object> response = statClient.addHits(batch);
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    HitBatchResultDto result = objectMapper.convertValue(response.getBody(), HitBatchResultDto.class);
+                    if (result != null && result.getErrors() != null && !result.getErrors().isEmpty()) {
+                        dropped.addAndGet(result.getErrors().size());
+                        log.warn("Сервер статистики отклонил {} просмотров, первая ошибка: {}",
+                                result.getErrors().size(), result.getErrors().get(0).getError());
+                    }
+                    return;
+                }
+                if (response.getStatusCode().is4xxClientError()) {
+                    dropped.addAndGet(batch.size());
+                    log.error("Сервер статистики отклонил пакет из {} просмотров: {}",
+                            batch.size(), response.getStatusCode());
+                    return;
+                }
+                log.warn("Сервер статистики ответил {} на пакет из {} просмотров", response.getStatusCode(),
+                        batch.size());
+            } catch (RestClientException e) {
+                log.warn("Сервер статистики недоступен, пакет из {} просмотров не отправлен: {}",
+                        batch.size(), e.getMessage());
+            }
+            if (hitSpool.isEnabled()) {
+                if (!hitSpool.append(batch)) {
+                    log.error("Часть пакета из {} просмотров не поместилась в буфер на диске", batch.size());
+                }
+                return;
+            }
+            if (!retry || !running) {
+                break;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+        }
+        dropped.addAndGet(batch.size());
+        log.error("Потеряно {} просмотров", batch.size());
+    }
+}
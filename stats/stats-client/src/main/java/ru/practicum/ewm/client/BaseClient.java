@@ -2,18 +2,29 @@ package ru.practicum.ewm.client;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 public class BaseClient {
     protected final RestTemplate rest;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
         this.rest = rest;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
     }
 
     protected ResponseEntity<Object> get(String path, MultiValueMap<String, String> parameters) {
@@ -24,24 +35,57 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, null, body);
     }
 
+    protected <R> Optional<R> get(String path, MultiValueMap<String, String> parameters,
+                                  ResponseExtractor<R> extractor) {
+        String uri = toUri(path, parameters);
+        return guard(() -> Optional.ofNullable(rest.execute(uri, HttpMethod.GET, null, extractor)),
+                e -> Optional.empty(), Optional::empty);
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, MultiValueMap<String, String> parameters, @Nullable T body) {
-        String uri = UriComponentsBuilder.fromPath(path)
-                .queryParams(parameters)
-                .build()
-                .toUriString();
+        String uri = toUri(path, parameters);
 
-        HttpEntity<T> requestEntity = null;
-        if (body != null) {
-            requestEntity = new HttpEntity<>(body);
-        }
+        HttpEntity<T> requestEntity = body == null ? null : new HttpEntity<>(body);
 
-        ResponseEntity<Object> statServerResponse;
+        return guard(() -> prepareStatServerResponse(rest.exchange(uri, method, requestEntity, Object.class)),
+                e -> ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray()),
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    private <R> R guard(Supplier<R> call, Function<HttpStatusCodeException, R> onErrorStatus, Supplier<R> onUnavailable) {
+        if (!bulkhead.tryAcquire()) {
+            return onUnavailable.get();
+        }
         try {
-            statServerResponse = rest.exchange(uri, method, requestEntity, Object.class);
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            if (!circuitBreaker.tryAcquire()) {
+                return onUnavailable.get();
+            }
+            R result;
+            try {
+                result = call.get();
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode().is5xxServerError()) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                return onErrorStatus.apply(e);
+            } catch (RestClientException e) {
+                circuitBreaker.onFailure();
+                return onUnavailable.get();
+            }
+            circuitBreaker.onSuccess();
+            return result;
+        } finally {
+            bulkhead.release();
         }
-        return prepareStatServerResponse(statServerResponse);
+    }
+
+    private static String toUri(String path, MultiValueMap<String, String> parameters) {
+        return UriComponentsBuilder.fromPath(path)
+                .queryParams(parameters)
+                .build()
+                .toUriString();
     }
 
     private static ResponseEntity<Object> prepareStatServerResponse(ResponseEntity<Object> response) {
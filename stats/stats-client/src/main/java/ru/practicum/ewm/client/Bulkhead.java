@@ -0,0 +1,32 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+
+public class Bulkhead {
+    private final Semaphore permits;
+    private final Counter rejectedCounter;
+
+    public Bulkhead(MeterRegistry meterRegistry, int maxConcurrentCalls) {
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.rejectedCounter = meterRegistry.counter("stat.client.bulkhead.rejected");
+        Gauge.builder("stat.client.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Количество свободных мест для параллельных вызовов сервера статистики")
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire() {
+        boolean acquired = permits.tryAcquire();
+        if (!acquired) {
+            rejectedCounter.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
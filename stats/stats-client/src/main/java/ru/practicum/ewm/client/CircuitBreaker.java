@@ -0,0 +1,71 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final Counter rejectedCounter;
+    private final Counter openedCounter;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    public CircuitBreaker(MeterRegistry meterRegistry, int failureThreshold, long openDurationMs) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.rejectedCounter = meterRegistry.counter("stat.client.breaker.rejected");
+        this.openedCounter = meterRegistry.counter("stat.client.breaker.opened");
+        Gauge.builder("stat.client.breaker.state", this, breaker -> breaker.getState().ordinal())
+                .description("Состояние предохранителя клиента статистики: 0 - закрыт, 1 - открыт, 2 - пробный вызов")
+                .register(meterRegistry);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.CLOSED || state == State.HALF_OPEN && !probing) {
+            probing = state == State.HALF_OPEN;
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Сервер статистики снова доступен");
+        }
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || state == State.CLOSED && failures >= failureThreshold) {
+            log.warn("Сервер статистики недоступен, вызовы приостановлены на {} мс", openDurationMs);
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            probing = false;
+            openedCounter.increment();
+        }
+    }
+}
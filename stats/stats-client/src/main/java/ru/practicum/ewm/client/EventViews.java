@@ -0,0 +1,88 @@
+package ru.practicum.ewm.client;
+
+public class EventViews {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    public EventViews() {
+        this(16);
+    }
+
+    public EventViews(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    public long get(long eventId) {
+        int index = indexOf(eventId);
+        return used[index] ? values[index] : 0;
+    }
+
+    public boolean contains(long eventId) {
+        return used[indexOf(eventId)];
+    }
+
+    public void put(long eventId, long views) {
+        int index = indexOf(eventId);
+        if (!used[index]) {
+            if (size + 1 > keys.length * LOAD_FACTOR) {
+                resize();
+                index = indexOf(eventId);
+            }
+            used[index] = true;
+            keys[index] = eventId;
+            size++;
+        }
+        values[index] = views;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(ViewsConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldKeys[i]);
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    public interface ViewsConsumer {
+        void accept(long eventId, long views);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.ewm.client;
+
+public enum HitOverflowPolicy {
+    DROP,
+    DROP_OLDEST,
+    SYNC,
+    SPOOL
+}
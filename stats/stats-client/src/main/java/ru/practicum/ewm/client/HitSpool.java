@@ -0,0 +1,239 @@
+package ru.practicum.ewm.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.ewm.hit.HitDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class HitSpool {
+    private static final String SEGMENT_PREFIX = "hits-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private final StatClient statClient;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+    private final int batchSize;
+    private final long replayIntervalMs;
+    private final Deque<HitSpoolSegment> segments = new ArrayDeque<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread replayer;
+    private volatile boolean running;
+
+    @Autowired
+    public HitSpool(StatClient statClient, ObjectMapper objectMapper,
+                    @Value("${ewm-stat-server.spool.enabled}") boolean enabled,
+                    @Value("${ewm-stat-server.spool.dir}") String directory,
+                    @Value("${ewm-stat-server.spool.segment-size}") int segmentSize,
+                    @Value("${ewm-stat-server.spool.max-size}") long maxSize,
+                    @Value("${ewm-stat-server.hits.batch-size}") int batchSize,
+                    @Value("${ewm-stat-server.spool.replay-interval-ms}") long replayIntervalMs) {
+        this.statClient = statClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+        this.replayIntervalMs = replayIntervalMs;
+        this.replayer = new Thread(this::run, "stat-hit-replayer");
+        this.replayer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            HitSpoolSegment segment = HitSpoolSegment.open(file, sequence(file), segmentSize);
+            if (segment.isEmpty()) {
+                segment.delete();
+            } else {
+                segments.addLast(segment);
+            }
+        }
+        if (!segments.isEmpty()) {
+            log.info("В буфере на диске найдено {} сегментов с неотправленными просмотрами", segments.size());
+        }
+        running = true;
+        replayer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        replayer.interrupt();
+        replayer.join();
+        synchronized (this) {
+            segments.forEach(HitSpoolSegment::force);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean append(List<HitDto> hits) {
+        if (!enabled) {
+            return false;
+        }
+        int accepted = 0;
+        synchronized (this) {
+            for (HitDto hit : hits) {
+                byte[] record;
+                try {
+                    record = objectMapper.writeValueAsBytes(hit);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                HitSpoolSegment segment = writableSegment(record.length);
+                if (segment == null) {
+                    break;
+                }
+                segment.append(record);
+                accepted++;
+            }
+        }
+        if (accepted < hits.size()) {
+            log.warn("Буфер просмотров на диске заполнен, отброшено {}, всего {}", hits.size() - accepted,
+                    dropped.addAndGet(hits.size() - accepted));
+        }
+        return accepted == hits.size();
+    }
+
+    public synchronized long getSize() {
+        return segments.stream().mapToLong(HitSpoolSegment::getCapacity).sum();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private HitSpoolSegment writableSegment(int length) {
+        HitSpoolSegment last = segments.peekLast();
+        if (last != null && last.fits(length)) {
+            return last;
+        }
+        if (!HitSpoolSegment.fitsEmpty(length, segmentSize)
+                || (long) (segments.size() + 1) * segmentSize > maxSize) {
+            return null;
+        }
+        long sequence = last == null ? 1 : last.getSequence() + 1;
+        try {
+            if (last != null) {
+                last.force();
+            }
+            HitSpoolSegment segment = HitSpoolSegment.open(directory.resolve(
+                    String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX)), sequence, segmentSize);
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException e) {
+            log.error("Не удалось создать сегмент буфера просмотров: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(replayIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                replay();
+            } catch (IOException e) {
+                log.error("Ошибка чтения буфера просмотров: {}", e.getMessage());
+            }
+            synchronized (this) {
+                segments.forEach(HitSpoolSegment::forceIfDirty);
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        while (running) {
+            HitSpoolSegment segment;
+            List<byte[]> records;
+            synchronized (this) {
+                segment = segments.peekFirst();
+                if (segment == null) {
+                    return;
+                }
+                records = segment.read(batchSize);
+                if (records.isEmpty()) {
+                    if (segment == segments.peekLast()) {
+                        return;
+                    }
+                    segments.removeFirst();
+                    segment.delete();
+                    continue;
+                }
+            }
+            List<HitDto> hits = new ArrayList<>(records.size());
+            for (byte[] record : records) {
+                hits.add(objectMapper.readValue(record, HitDto.class));
+            }
+            try {
+                ResponseEntity<Object> response = statClient.addHits(hits);
+                if (response.getStatusCode().is5xxServerError()) {
+                    return;
+                }
+                if (response.getStatusCode().is4xxClientError()) {
+                    log.error("Сервер статистики отклонил {} просмотров из буфера: {}", hits.size(),
+                            response.getStatusCode());
+                }
+            } catch (RestClientException e) {
+                return;
+            }
+            synchronized (this) {
+                segment.commit(records.size());
+                if (segment.isEmpty() && segment == segments.peekLast()) {
+                    segment.reset();
+                }
+            }
+            log.debug("Из буфера на диске отправлено {} просмотров", hits.size());
+        }
+    }
+
+    private static long sequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
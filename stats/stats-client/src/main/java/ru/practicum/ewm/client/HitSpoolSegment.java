@@ -0,0 +1,131 @@
+package ru.practicum.ewm.client;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HitSpoolSegment {
+    private static final int HEADER_SIZE = 8;
+    private static final int LENGTH_SIZE = 4;
+
+    private final Path path;
+    private final long sequence;
+    private final MappedByteBuffer buffer;
+    private int readOffset;
+    private int writeOffset;
+    private boolean dirty;
+
+    private HitSpoolSegment(Path path, long sequence, MappedByteBuffer buffer) {
+        this.path = path;
+        this.sequence = sequence;
+        this.buffer = buffer;
+        int committed = buffer.getInt(0);
+        boolean committedFound = committed == HEADER_SIZE;
+        this.writeOffset = HEADER_SIZE;
+        int length = recordLength(writeOffset, buffer.capacity());
+        while (length > 0) {
+            writeOffset += LENGTH_SIZE + length;
+            committedFound |= committed == writeOffset;
+            length = recordLength(writeOffset, buffer.capacity());
+        }
+        this.readOffset = committedFound ? committed : HEADER_SIZE;
+    }
+
+    public static HitSpoolSegment open(Path path, long sequence, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int capacity = (int) Math.max(channel.size(), size);
+            return new HitSpoolSegment(path, sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        }
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public boolean isEmpty() {
+        return readOffset >= writeOffset;
+    }
+
+    public boolean fits(int length) {
+        return writeOffset + LENGTH_SIZE + length <= buffer.capacity();
+    }
+
+    public static boolean fitsEmpty(int length, int size) {
+        return HEADER_SIZE + LENGTH_SIZE + length <= size;
+    }
+
+    public void append(byte[] record) {
+        buffer.duplicate().position(writeOffset + LENGTH_SIZE).put(record);
+        buffer.putInt(writeOffset, record.length);
+        writeOffset += LENGTH_SIZE + record.length;
+        dirty = true;
+    }
+
+    public List<byte[]> read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        int offset = readOffset;
+        while (records.size() < maxRecords && offset < writeOffset) {
+            int length = recordLength(offset, writeOffset);
+            if (length <= 0) {
+                writeOffset = offset;
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.duplicate().position(offset + LENGTH_SIZE).get(record);
+            records.add(record);
+            offset += LENGTH_SIZE + record.length;
+        }
+        return records;
+    }
+
+    public void commit(int records) {
+        for (int i = 0; i < records && readOffset < writeOffset; i++) {
+            readOffset += LENGTH_SIZE + buffer.getInt(readOffset);
+        }
+        buffer.putInt(0, readOffset);
+        dirty = true;
+    }
+
+    public void reset() {
+        for (int offset = HEADER_SIZE; offset < writeOffset; offset++) {
+            buffer.put(offset, (byte) 0);
+        }
+        readOffset = HEADER_SIZE;
+        writeOffset = HEADER_SIZE;
+        buffer.putInt(0, readOffset);
+        dirty = true;
+    }
+
+    public void force() {
+        buffer.force();
+        dirty = false;
+    }
+
+    public void forceIfDirty() {
+        if (dirty) {
+            force();
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private int recordLength(int offset, int limit) {
+        if (offset + LENGTH_SIZE > limit) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        return length > 0 && length <= limit - offset - LENGTH_SIZE ? length : 0;
+    }
+}
@@ -1,31 +1,64 @@
 package ru.practicum.ewm.client;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.ewm.hit.HitDto;
+import ru.practicum.ewm.stat.StatQueryDto;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 public class StatClient extends BaseClient {
+    private static final String EVENT_APP = "ewm-main-service";
+    private static final String EVENT_URI_PATTERN = "/events/*";
+    private static final int EVENT_VIEWS_CHUNK_SIZE = 500;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     DateTimeFormatter dtf;
+    int postQueryThreshold;
 
     @Autowired
-    public StatClient(@Value("${ewm-stat-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatClient(@Value("${ewm-stat-server.url}") String serverUrl,
+                      @Value("${ewm-stat-server.post-query-threshold}") int postQueryThreshold,
+                      @Value("${ewm-stat-server.http.max-connections}") int maxConnections,
+                      @Value("${ewm-stat-server.http.connect-timeout-ms}") int connectTimeoutMs,
+                      @Value("${ewm-stat-server.http.read-timeout-ms}") int readTimeoutMs,
+                      @Value("${ewm-stat-server.http.pool-timeout-ms}") int poolTimeoutMs,
+                      @Value("${ewm-stat-server.http.max-concurrent-calls}") int maxConcurrentCalls,
+                      @Value("${ewm-stat-server.breaker.failure-threshold}") int failureThreshold,
+                      @Value("${ewm-stat-server.breaker.open-duration-ms}") long openDurationMs,
+                      RestTemplateBuilder builder, MeterRegistry meterRegistry) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+                .requestFactory(() -> requestFactory(maxConnections, connectTimeoutMs, readTimeoutMs, poolTimeoutMs))
+                .build(),
+                new CircuitBreaker(meterRegistry, failureThreshold, openDurationMs),
+                new Bulkhead(meterRegistry, maxConcurrentCalls));
         this.dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        this.postQueryThreshold = postQueryThreshold;
     }
 
     public ResponseEntity<Object> addHit(String appName, String uri, String ip, LocalDateTime timestamp) {
@@ -38,13 +71,112 @@ public class StatClient extends BaseClient {
         return post("/hit", hitDto);
     }
 
+    public ResponseEntity<Object> addHits(List<HitDto> hitDtos) {
+        return post("/hit/batch", hitDtos);
+    }
+
     public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        return getStats(start, end, uris, unique, false);
+    }
+
+    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                           boolean approximate) {
+        if (uris != null && uris.size() > postQueryThreshold) {
+            return post("/stats/query", StatQueryDto.builder()
+                    .start(start)
+                    .end(end)
+                    .uris(uris)
+                    .unique(unique)
+                    .approximate(approximate)
+                    .build());
+        }
         MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
         parameters.add("start", start.format(this.dtf));
         parameters.add("end", end.format(this.dtf));
         parameters.addAll("uris", uris);
         parameters.add("unique", String.valueOf(unique));
+        parameters.add("approximate", String.valueOf(approximate));
 
         return get("/stats", parameters);
     }
+
+    public Optional<EventViews> getEventViews(boolean unique) {
+        MultiValueMap<String, String> parameters = eventKeyParameters(unique);
+        parameters.add("allTime", "true");
+        return get("/stats/keys", parameters, response -> readEventViews(response, new EventViews()));
+    }
+
+    public Optional<EventViews> getEventViews(LocalDateTime start, LocalDateTime end, boolean unique) {
+        MultiValueMap<String, String> parameters = eventKeyParameters(unique);
+        parameters.add("start", start.format(this.dtf));
+        parameters.add("end", end.format(this.dtf));
+        return get("/stats/keys", parameters, response -> readEventViews(response, new EventViews()));
+    }
+
+    public Optional<EventViews> getEventViews(Collection<Long> eventIds, boolean unique) {
+        List<Long> ids = new ArrayList<>(eventIds);
+        EventViews views = new EventViews(ids.size());
+        for (int from = 0; from < ids.size(); from += EVENT_VIEWS_CHUNK_SIZE) {
+            MultiValueMap<String, String> parameters = eventKeyParameters(unique);
+            parameters.add("allTime", "true");
+            parameters.add("keys", ids.subList(from, Math.min(from + EVENT_VIEWS_CHUNK_SIZE, ids.size())).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+            if (get("/stats/keys", parameters, response -> readEventViews(response, views)).isEmpty()) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(views);
+    }
+
+    private static MultiValueMap<String, String> eventKeyParameters(boolean unique) {
+        MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+        parameters.add("pattern", EVENT_URI_PATTERN);
+        parameters.add("app", EVENT_APP);
+        parameters.add("unique", String.valueOf(unique));
+        return parameters;
+    }
+
+    private static EventViews readEventViews(ClientHttpResponse response, EventViews views) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Ожидался массив статистики, получено " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long key = -1;
+                long hits = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("key".equals(field)) {
+                        key = parser.getLongValue();
+                    } else if ("hits".equals(field)) {
+                        hits = parser.getLongValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (key >= 0) {
+                    views.put(key, views.get(key) + hits);
+                }
+            }
+        }
+        return views;
+    }
+
+    private static HttpComponentsClientHttpRequestFactory requestFactory(int maxConnections, int connectTimeoutMs,
+                                                                         int readTimeoutMs, int poolTimeoutMs) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        return new HttpComponentsClientHttpRequestFactory(HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .setConnectionRequestTimeout(poolTimeoutMs)
+                        .build())
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build());
+    }
 }
@@ -0,0 +1,246 @@
+package ru.practicum.ewm.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.ewm.hit.HitDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncHitReporterTest {
+    private static final String APP = "ewm-main-service";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+    private final StatClient statClient = mock(StatClient.class);
+    private final HitSpool hitSpool = mock(HitSpool.class);
+    private final List<List<HitDto>> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AsyncHitReporter reporter;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        if (reporter != null) {
+            reporter.stop();
+        }
+    }
+
+    @Test
+    void sendsQueuedHitsInBatchesNoLargerThanBatchSize() throws InterruptedException {
+        acceptAll(true);
+        reporter = start(HitOverflowPolicy.DROP, 100, 3, 50);
+
+        reporter.report(APP, "/events/0", "10.0.0.1", NOW);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 8; i++) {
+            reporter.report(APP, "/events/" + i, "10.0.0.1", NOW);
+        }
+        release.countDown();
+        reporter.stop();
+
+        assertThat(sent).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 3));
+        assertThat(sentUris()).containsExactly("/events/0", "/events/1", "/events/2", "/events/3",
+                "/events/4", "/events/5", "/events/6", "/events/7");
+    }
+
+    @Test
+    void stopFlushesHitsStillWaitingForBatch() throws InterruptedException {
+        acceptAll(false);
+        reporter = start(HitOverflowPolicy.DROP, 100, 10, 60_000);
+
+        reporter.report(APP, "/events/1", "10.0.0.1", NOW);
+        reporter.report(APP, "/events/2", "10.0.0.1", NOW);
+        reporter.stop();
+
+        assertThat(sentUris()).containsExactly("/events/1", "/events/2");
+    }
+
+    @Test
+    void dropPolicyDiscardsNewHitWhenQueueIsFull() throws InterruptedException {
+        reporter = fillQueue(HitOverflowPolicy.DROP);
+
+        reporter.report(APP, "/events/3", "10.0.0.1", NOW);
+
+        assertThat(reporter.getDropped()).isEqualTo(1);
+        release.countDown();
+        reporter.stop();
+        assertThat(sentUris()).containsExactly("/events/2");
+    }
+
+    @Test
+    void dropOldestPolicyReplacesQueuedHit() throws InterruptedException {
+        reporter = fillQueue(HitOverflowPolicy.DROP_OLDEST);
+
+        reporter.report(APP, "/events/3", "10.0.0.1", NOW);
+
+        assertThat(reporter.getDropped()).isEqualTo(1);
+        assertThat(reporter.getQueueSize()).isEqualTo(1);
+        release.countDown();
+        reporter.stop();
+        assertThat(sentUris()).containsExactly("/events/3");
+    }
+
+    @Test
+    void syncPolicySendsOverflowFromCallerThread() throws InterruptedException {
+        reporter = fillQueue(HitOverflowPolicy.SYNC);
+
+        reporter.report(APP, "/events/3", "10.0.0.1", NOW);
+
+        assertThat(sentUris()).containsExactly("/events/3");
+        assertThat(reporter.getDropped()).isZero();
+    }
+
+    @Test
+    void spoolPolicyWritesOverflowToDisk() throws InterruptedException {
+        when(hitSpool.append(anyList())).thenReturn(true);
+        reporter = fillQueue(HitOverflowPolicy.SPOOL);
+
+        reporter.report(APP, "/events/3", "10.0.0.1", NOW);
+
+        verify(hitSpool).append(List.of(hit("/events/3")));
+        assertThat(reporter.getDropped()).isZero();
+    }
+
+    @Test
+    void spoolPolicyCountsHitAsDroppedWhenSpoolIsFull() throws InterruptedException {
+        when(hitSpool.append(anyList())).thenReturn(false);
+        reporter = fillQueue(HitOverflowPolicy.SPOOL);
+
+        reporter.report(APP, "/events/3", "10.0.0.1", NOW);
+
+        assertThat(reporter.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void failedBatchGoesToSpoolWhenItIsEnabled() {
+        when(statClient.addHits(anyList())).thenThrow(new ResourceAccessException("Connection refused"));
+        when(hitSpool.isEnabled()).thenReturn(true);
+        when(hitSpool.append(anyList())).thenAnswer(invocation -> sent.add(List.copyOf(invocation.getArgument(0))));
+        reporter = start(HitOverflowPolicy.DROP, 100, 10, 10);
+
+        reporter.report(APP, "/events/1", "10.0.0.1", NOW);
+
+        verify(hitSpool, timeout(5000)).append(anyList());
+        assertThat(sent).containsExactly(List.of(hit("/events/1")));
+        assertThat(reporter.getDropped()).isZero();
+    }
+
+    @Test
+    void rejectedBatchIsCountedAsDroppedWithoutRetry() throws InterruptedException {
+        when(statClient.addHits(anyList())).thenAnswer(invocation -> {
+            sent.add(List.copyOf(invocation.<List<HitDto>>getArgument(0)));
+            return ResponseEntity.badRequest().build();
+        });
+        reporter = start(HitOverflowPolicy.DROP, 100, 10, 60_000);
+
+        reporter.report(APP, "/events/1", "10.0.0.1", NOW);
+        reporter.report(APP, "/events/2", "10.0.0.1", NOW);
+        reporter.stop();
+
+        assertThat(sent).containsExactly(List.of(hit("/events/1"), hit("/events/2")));
+        verify(hitSpool, never()).append(anyList());
+        assertThat(reporter.getDropped()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectedHitsInsideBatchAreCountedAsDropped() throws InterruptedException {
+        when(statClient.addHits(anyList())).thenReturn(ResponseEntity.status(HttpStatus.CREATED)
+                .body(Map.of("accepted", 1, "errors", List.of(Map.of("index", 1, "error", "Неверный ip")))));
+        reporter = start(HitOverflowPolicy.DROP, 100, 10, 60_000);
+
+        reporter.report(APP, "/events/1", "10.0.0.1", NOW);
+        reporter.report(APP, "/events/2", "bad", NOW);
+        reporter.stop();
+
+        assertThat(reporter.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void unexpectedErrorDropsBatchAndKeepsFlusherRunning() throws InterruptedException {
+        when(statClient.addHits(anyList()))
+                .thenThrow(new IllegalArgumentException("Неожиданный ответ"))
+                .thenAnswer(invocation -> {
+                    sent.add(List.copyOf(invocation.<List<HitDto>>getArgument(0)));
+                    return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("accepted", 1));
+                });
+        reporter = start(HitOverflowPolicy.DROP, 100, 1, 10);
+
+        reporter.report(APP, "/events/1", "10.0.0.1", NOW);
+        verify(statClient, timeout(5000)).addHits(anyList());
+        reporter.report(APP, "/events/2", "10.0.0.1", NOW);
+        verify(statClient, timeout(5000).times(2)).addHits(anyList());
+        reporter.stop();
+
+        assertThat(sentUris()).containsExactly("/events/2");
+        assertThat(reporter.getDropped()).isEqualTo(1);
+    }
+
+    private AsyncHitReporter fillQueue(HitOverflowPolicy policy) throws InterruptedException {
+        acceptAll(true);
+        AsyncHitReporter reporter = start(policy, 1, 1, 10);
+        reporter.report(APP, "/events/1", "10.0.0.1", NOW);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        sent.clear();
+        reporter.report(APP, "/events/2", "10.0.0.1", NOW);
+        assertThat(reporter.getQueueSize()).isEqualTo(1);
+        return reporter;
+    }
+
+    private void acceptAll(boolean blockFlusher) {
+        when(statClient.addHits(anyList())).thenAnswer(invocation -> {
+            List<HitDto> batch = invocation.getArgument(0);
+            sent.add(List.copyOf(batch));
+            if (blockFlusher && Thread.currentThread().getName().equals("stat-hit-reporter")
+                    && entered.getCount() > 0) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("accepted", batch.size()));
+        });
+    }
+
+    private AsyncHitReporter start(HitOverflowPolicy policy, int capacity, int batchSize, long flushIntervalMs) {
+        AsyncHitReporter reporter = new AsyncHitReporter(statClient, hitSpool, new ObjectMapper(), capacity,
+                batchSize, flushIntervalMs, policy);
+        reporter.start();
+        return reporter;
+    }
+
+    private List<String> sentUris() {
+        return sent.stream()
+                .flatMap(List::stream)
+                .map(HitDto::getUri)
+                .collect(Collectors.toList());
+    }
+
+    private static HitDto hit(String uri) {
+        return HitDto.builder()
+                .app(APP)
+                .uri(uri)
+                .ip("10.0.0.1")
+                .timestamp(NOW)
+                .build();
+    }
+}
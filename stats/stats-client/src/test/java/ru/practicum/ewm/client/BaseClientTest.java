@@ -0,0 +1,93 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+class BaseClientTest {
+    private static final String URL = "http://localhost:9090";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+    private StatClient statClient;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        statClient = new StatClient(URL, 50, 4, 100, 100, 100, 4, 2, 60_000,
+                new RestTemplateBuilder(), new SimpleMeterRegistry());
+        server = MockRestServiceServer.bindTo(statClient.rest).build();
+    }
+
+    @Test
+    void serverErrorsOpenBreakerAndFurtherCallsAreNotSent() {
+        server.expect(times(2), requestTo(URL + "/hit")).andRespond(withServerError());
+
+        assertThat(addHit().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(addHit().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(addHit().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        server.verify();
+    }
+
+    @Test
+    void connectionErrorsOpenBreaker() {
+        server.expect(times(2), requestTo(URL + "/hit")).andRespond(request -> {
+            throw new ResourceAccessException("Connection refused");
+        });
+
+        addHit();
+        addHit();
+
+        assertThat(addHit().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        server.verify();
+    }
+
+    @Test
+    void clientErrorsDoNotOpenBreaker() {
+        server.expect(times(3), requestTo(URL + "/hit")).andRespond(withBadRequest());
+        server.expect(requestTo(URL + "/hit")).andRespond(withStatus(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON).body("{}"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(addHit().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+        assertThat(addHit().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        server.verify();
+    }
+
+    @Test
+    void successBetweenFailuresKeepsBreakerClosed() {
+        server.expect(requestTo(URL + "/hit")).andRespond(withServerError());
+        server.expect(requestTo(URL + "/hit")).andRespond(withStatus(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON).body("{}"));
+        server.expect(requestTo(URL + "/hit")).andRespond(withServerError());
+        server.expect(requestTo(URL + "/hit")).andRespond(withStatus(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON).body("{}"));
+
+        assertThat(List.of(addHit(), addHit(), addHit(), addHit()))
+                .extracting(ResponseEntity::getStatusCode)
+                .containsExactly(HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.CREATED,
+                        HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.CREATED);
+        server.verify();
+    }
+
+    private ResponseEntity<Object> addHit() {
+        return statClient.addHit("ewm-main-service", "/events/1", "10.0.0.1", NOW);
+    }
+}
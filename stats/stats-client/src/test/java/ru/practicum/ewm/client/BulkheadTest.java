@@ -0,0 +1,24 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkhead bulkhead = new Bulkhead(meterRegistry, 2);
+
+    @Test
+    void rejectsCallsBeyondLimitUntilPermitIsReleased() {
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("stat.client.bulkhead.available").gauge().value()).isZero();
+
+        bulkhead.release();
+
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(meterRegistry.counter("stat.client.bulkhead.rejected").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    private static final long OPEN_DURATION_MS = 100;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker breaker = new CircuitBreaker(meterRegistry, 3, OPEN_DURATION_MS);
+
+    @Test
+    void opensAfterConsecutiveFailuresReachThreshold() {
+        fail(2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        fail(1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(meterRegistry.counter("stat.client.breaker.opened").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("stat.client.breaker.rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("stat.client.breaker.state").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        fail(2);
+        breaker.onSuccess();
+        fail(2);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void allowsSingleProbeAfterOpenDuration() throws InterruptedException {
+        fail(3);
+        Thread.sleep(OPEN_DURATION_MS + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void successfulProbeClosesBreaker() throws InterruptedException {
+        fail(3);
+        Thread.sleep(OPEN_DURATION_MS + 20);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopensBreakerForFullDuration() throws InterruptedException {
+        fail(3);
+        Thread.sleep(OPEN_DURATION_MS + 20);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(meterRegistry.counter("stat.client.breaker.opened").count()).isEqualTo(2);
+        Thread.sleep(OPEN_DURATION_MS + 20);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.ewm.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventViewsTest {
+    @Test
+    void missingEventHasNoViews() {
+        EventViews views = new EventViews();
+
+        assertThat(views.get(1)).isZero();
+        assertThat(views.contains(1)).isFalse();
+        assertThat(views.size()).isZero();
+    }
+
+    @Test
+    void putOverwritesExistingValue() {
+        EventViews views = new EventViews(1);
+        views.put(0, 3);
+        views.put(0, 7);
+
+        assertThat(views.get(0)).isEqualTo(7);
+        assertThat(views.contains(0)).isTrue();
+        assertThat(views.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesHashMapAcrossResizes() {
+        EventViews views = new EventViews(2);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(5_000) * 1024L;
+            long value = random.nextInt(1_000_000);
+            views.put(key, value);
+            expected.put(key, value);
+        }
+
+        assertThat(views.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(views.get(key)).as("событие %d", key).isEqualTo(value));
+        assertThat(views.contains(3)).isFalse();
+        Map<Long, Long> visited = new HashMap<>();
+        views.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.ewm.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitSpoolSegmentTest {
+    private static final int SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedSegmentKeepsUncommittedRecords() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("a"));
+        segment.append(bytes("bb"));
+        segment.append(bytes("ccc"));
+        segment.commit(1);
+
+        HitSpoolSegment reopened = HitSpoolSegment.open(file, 1, SIZE);
+
+        assertThat(strings(reopened.read(10))).containsExactly("bb", "ccc");
+        reopened.append(bytes("dddd"));
+        assertThat(strings(reopened.read(10))).containsExactly("bb", "ccc", "dddd");
+    }
+
+    @Test
+    void fullyCommittedSegmentIsEmptyAfterReopen() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("a"));
+        segment.append(bytes("bb"));
+        segment.commit(2);
+
+        assertThat(HitSpoolSegment.open(file, 1, SIZE).isEmpty()).isTrue();
+    }
+
+    @Test
+    void scanStopsAtFirstImplausibleLength() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("a"));
+        segment.append(bytes("bb"));
+        segment.append(bytes("ccc"));
+        writeInt(file, 8 + 4 + 1, Integer.MAX_VALUE);
+
+        HitSpoolSegment reopened = HitSpoolSegment.open(file, 1, SIZE);
+
+        assertThat(strings(reopened.read(10))).containsExactly("a");
+        reopened.append(bytes("dd"));
+        assertThat(strings(reopened.read(10))).containsExactly("a", "dd");
+    }
+
+    @Test
+    void negativeLengthEndsSegment() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("a"));
+        segment.append(bytes("bb"));
+        writeInt(file, 8, -5);
+
+        assertThat(HitSpoolSegment.open(file, 1, SIZE).isEmpty()).isTrue();
+    }
+
+    @Test
+    void headerBeyondCapacityReplaysFromStart() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("a"));
+        segment.append(bytes("bb"));
+        writeInt(file, 0, SIZE * 4);
+
+        assertThat(strings(HitSpoolSegment.open(file, 1, SIZE).read(10))).containsExactly("a", "bb");
+    }
+
+    @Test
+    void headerBetweenRecordsReplaysFromStart() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("aaaa"));
+        segment.append(bytes("bb"));
+        writeInt(file, 0, 8 + 2);
+
+        assertThat(strings(HitSpoolSegment.open(file, 1, SIZE).read(10))).containsExactly("aaaa", "bb");
+    }
+
+    @Test
+    void recordMustFitRemainingCapacity() throws IOException {
+        HitSpoolSegment segment = HitSpoolSegment.open(directory.resolve("hits-1.spool"), 1, 32);
+
+        assertThat(segment.fits(20)).isTrue();
+        segment.append(new byte[20]);
+
+        assertThat(segment.fits(1)).isFalse();
+        assertThat(HitSpoolSegment.fitsEmpty(20, 32)).isTrue();
+        assertThat(HitSpoolSegment.fitsEmpty(21, 32)).isFalse();
+    }
+
+    @Test
+    void resetClearsRecordsOnDisk() throws IOException {
+        Path file = directory.resolve("hits-1.spool");
+        HitSpoolSegment segment = HitSpoolSegment.open(file, 1, SIZE);
+        segment.append(bytes("a"));
+        segment.append(bytes("bb"));
+        segment.commit(2);
+        segment.reset();
+        segment.append(bytes("c"));
+
+        assertThat(strings(HitSpoolSegment.open(file, 1, SIZE).read(10))).containsExactly("c");
+    }
+
+    private static void writeInt(Path file, long position, int value) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            raf.writeInt(value);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> records) {
+        return records.stream()
+                .map(record -> new String(record, StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+}
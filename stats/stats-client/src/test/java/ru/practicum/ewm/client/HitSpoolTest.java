@@ -0,0 +1,137 @@
+package ru.practicum.ewm.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.ewm.hit.HitDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HitSpoolTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+    private final StatClient statClient = mock(StatClient.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<HitDto> sent = new CopyOnWriteArrayList<>();
+    private final List<HitSpool> spools = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (HitSpool spool : spools) {
+            spool.stop();
+        }
+    }
+
+    @Test
+    void hitsSurviveRestartWithoutShutdown() throws Exception {
+        HitSpool crashed = start(60_000, 256 * 1024);
+        assertThat(crashed.append(hits(0, 50))).isTrue();
+
+        acceptAll();
+        start(10, 256 * 1024);
+
+        awaitSent(50);
+        assertThat(sent).containsExactlyElementsOf(hits(0, 50));
+    }
+
+    @Test
+    void replayedHitsAreNotSentAgainAfterRestart() throws Exception {
+        acceptAll();
+        HitSpool spool = start(10, 256 * 1024);
+        assertThat(spool.append(hits(0, 30))).isTrue();
+        awaitSent(30);
+        spool.stop();
+        spools.remove(spool);
+
+        start(10, 256 * 1024);
+        Thread.sleep(100);
+
+        assertThat(sent).hasSize(30);
+    }
+
+    @Test
+    void failedReplayKeepsHitsForNextAttempt() throws Exception {
+        when(statClient.addHits(anyList())).thenReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        HitSpool spool = start(10, 256 * 1024);
+        assertThat(spool.append(hits(0, 5))).isTrue();
+        Thread.sleep(100);
+
+        acceptAll();
+
+        awaitSent(5);
+        assertThat(sent).containsExactlyElementsOf(hits(0, 5));
+    }
+
+    @Test
+    void appendRejectsHitsBeyondMaxSize() throws Exception {
+        HitSpool spool = start(60_000, 1024);
+
+        assertThat(spool.append(hits(0, 100))).isFalse();
+        assertThat(spool.getDropped()).isPositive();
+        assertThat(spool.getSize()).isLessThanOrEqualTo(1024);
+    }
+
+    @Test
+    void disabledSpoolAcceptsNothing() {
+        HitSpool spool = new HitSpool(statClient, objectMapper, false, directory.toString(), 512, 1024, 10, 10);
+
+        assertThat(spool.append(hits(0, 1))).isFalse();
+        verify(statClient, never()).addHits(anyList());
+    }
+
+    private HitSpool start(long replayIntervalMs, long maxSize) throws IOException {
+        HitSpool spool = new HitSpool(statClient, objectMapper, true, directory.toString(), 512, maxSize, 10,
+                replayIntervalMs);
+        spool.start();
+        spools.add(spool);
+        return spool;
+    }
+
+    private void acceptAll() {
+        when(statClient.addHits(anyList())).thenAnswer(invocation -> {
+            List<HitDto> batch = invocation.getArgument(0);
+            sent.addAll(batch);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("accepted", batch.size()));
+        });
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<HitDto> hits(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> HitDto.builder()
+                        .app("ewm-main-service")
+                        .uri("/events/" + i)
+                        .ip("10.0.0.1")
+                        .timestamp(NOW)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
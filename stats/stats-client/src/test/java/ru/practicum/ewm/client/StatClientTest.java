@@ -0,0 +1,154 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class StatClientTest {
+    private static final String URL = "http://localhost:9090";
+
+    private StatClient statClient;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        statClient = new StatClient(URL, 3, 4, 100, 100, 100, 4, 100, 60_000,
+                new RestTemplateBuilder(), new SimpleMeterRegistry());
+        server = MockRestServiceServer.bindTo(statClient.rest).build();
+    }
+
+    @Test
+    void eventViewsAreReadFromKeyStats() {
+        server.expect(requestTo(startsWith(URL + "/stats/keys")))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(queryParam("allTime", "true"))
+                .andExpect(queryParam("pattern", "/events/*"))
+                .andExpect(queryParam("keys", "1,2,3"))
+                .andExpect(queryParam("unique", "true"))
+                .andRespond(withSuccess("[{\"key\":1,\"hits\":5,\"extra\":{\"a\":[1,2]}},"
+                        + "{\"hits\":7,\"key\":3},{\"uri\":\"/events\",\"hits\":9}]", MediaType.APPLICATION_JSON));
+
+        Optional<EventViews> views = statClient.getEventViews(List.of(1L, 2L, 3L), true);
+
+        assertThat(views).isPresent();
+        assertThat(views.get().get(1)).isEqualTo(5);
+        assertThat(views.get().get(2)).isZero();
+        assertThat(views.get().get(3)).isEqualTo(7);
+        assertThat(views.get().size()).isEqualTo(2);
+        server.verify();
+    }
+
+    @Test
+    void eventViewsAreRequestedInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += 500) {
+            List<Long> chunk = ids.subList(from, Math.min(from + 500, ids.size()));
+            server.expect(requestTo(startsWith(URL + "/stats/keys")))
+                    .andExpect(queryParam("keys", chunk.stream().map(String::valueOf)
+                            .collect(Collectors.joining(","))))
+                    .andRespond(withSuccess("[{\"key\":" + chunk.get(0) + ",\"hits\":1}]",
+                            MediaType.APPLICATION_JSON));
+        }
+
+        EventViews views = statClient.getEventViews(ids, false).orElseThrow();
+
+        assertThat(views.size()).isEqualTo(3);
+        assertThat(views.get(1)).isEqualTo(1);
+        assertThat(views.get(501)).isEqualTo(1);
+        assertThat(views.get(1001)).isEqualTo(1);
+        server.verify();
+    }
+
+    @Test
+    void allTimeViewsOfEveryEventAreRequestedWithoutKeys() {
+        server.expect(requestTo(startsWith(URL + "/stats/keys")))
+                .andExpect(queryParam("allTime", "true"))
+                .andExpect(queryParam("app", "ewm-main-service"))
+                .andExpect(request -> assertThat(request.getURI().getQuery()).doesNotContain("keys"))
+                .andRespond(withSuccess("[{\"key\":4,\"hits\":2},{\"key\":4,\"hits\":3}]",
+                        MediaType.APPLICATION_JSON));
+
+        EventViews views = statClient.getEventViews(true).orElseThrow();
+
+        assertThat(views.get(4)).isEqualTo(5);
+        server.verify();
+    }
+
+    @Test
+    void windowViewsAreRequestedForPeriod() {
+        server.expect(requestTo(startsWith(URL + "/stats/keys")))
+                .andExpect(queryParam("start", "2024-05-10%2000:00:00"))
+                .andExpect(queryParam("end", "2024-05-11%2000:00:00"))
+                .andExpect(queryParam("unique", "false"))
+                .andExpect(request -> assertThat(request.getURI().getQuery()).doesNotContain("allTime"))
+                .andRespond(withSuccess("[{\"key\":8,\"hits\":1}]", MediaType.APPLICATION_JSON));
+
+        EventViews views = statClient.getEventViews(LocalDateTime.of(2024, 5, 10, 0, 0),
+                LocalDateTime.of(2024, 5, 11, 0, 0), false).orElseThrow();
+
+        assertThat(views.get(8)).isEqualTo(1);
+        server.verify();
+    }
+
+    @Test
+    void eventViewsAreEmptyWhenServerFails() {
+        server.expect(requestTo(startsWith(URL + "/stats/keys"))).andRespond(withServerError());
+
+        assertThat(statClient.getEventViews(List.of(1L), true)).isEmpty();
+    }
+
+    @Test
+    void eventViewsAreEmptyWhenResponseIsNotArray() {
+        server.expect(requestTo(startsWith(URL + "/stats/keys")))
+                .andRespond(withSuccess("{\"key\":1}", MediaType.APPLICATION_JSON));
+
+        assertThat(statClient.getEventViews(List.of(1L), true)).isEmpty();
+    }
+
+    @Test
+    void longUriListIsSentAsQueryBody() {
+        server.expect(requestTo(URL + "/stats/query"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.uris.length()").value(4))
+                .andExpect(jsonPath("$.unique").value(true))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        statClient.getStats(LocalDateTime.of(2024, 5, 10, 0, 0), LocalDateTime.of(2024, 5, 11, 0, 0),
+                List.of("/events/1", "/events/2", "/events/3", "/events/4"), true);
+
+        server.verify();
+    }
+
+    @Test
+    void shortUriListIsSentAsQueryParameters() {
+        server.expect(requestTo(startsWith(URL + "/stats?")))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(queryParam("uris", "/events/1", "/events/2"))
+                .andExpect(queryParam("start", "2024-05-10%2000:00:00"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        statClient.getStats(LocalDateTime.of(2024, 5, 10, 0, 0), LocalDateTime.of(2024, 5, 11, 0, 0),
+                List.of("/events/1", "/events/2"), false);
+
+        server.verify();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.ewm.dictionary;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+public interface DictionaryRepository {
+    void findAll(DictionaryType type, BiConsumer<Integer, String> consumer);
+
+    Map<String, Integer> findIds(DictionaryType type, Collection<String> values);
+
+    Map<String, Integer> findByPrefix(DictionaryType type, String prefix);
+
+    String findValue(DictionaryType type, int id);
+
+    void insertMissing(DictionaryType type, Collection<String> values);
+}
@@ -0,0 +1,76 @@
+package ru.practicum.ewm.dictionary;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.stat.DatabaseDialect;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+@Repository
+public class DictionaryRepositoryImpl implements DictionaryRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    @Autowired
+    public DictionaryRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                    DatabaseDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public void findAll(DictionaryType type, BiConsumer<Integer, String> consumer) {
+        jdbcTemplate.query("SELECT id, " + type.getColumn() + " FROM " + type.getTable(),
+                rs -> {
+                    consumer.accept(rs.getInt(1), rs.getString(2));
+                });
+    }
+
+    @Override
+    public Map<String, Integer> findIds(DictionaryType type, Collection<String> values) {
+        Map<String, Integer> ids = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, " + type.getColumn() + " FROM " + type.getTable()
+                        + " WHERE " + type.getColumn() + " = ANY(:values)",
+                new MapSqlParameterSource("values", values.toArray(new String[0])),
+                rs -> {
+                    ids.put(rs.getString(2), rs.getInt(1));
+                });
+        return ids;
+    }
+
+    @Override
+    public Map<String, Integer> findByPrefix(DictionaryType type, String prefix) {
+        Map<String, Integer> ids = new HashMap<>();
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        jdbcTemplate.query("SELECT id, " + type.getColumn() + " FROM " + type.getTable()
+                        + " WHERE " + type.getColumn() + " LIKE ? ESCAPE '\\'",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getInt(1));
+                }, pattern);
+        return ids;
+    }
+
+    @Override
+    public String findValue(DictionaryType type, int id) {
+        List<String> values = jdbcTemplate.queryForList("SELECT " + type.getColumn() + " FROM " + type.getTable()
+                + " WHERE id = ?", String.class, id);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public void insertMissing(DictionaryType type, Collection<String> values) {
+        jdbcTemplate.batchUpdate(dialect.insertIfAbsentSql(type.getTable(), List.of(type.getColumn()),
+                        List.of("VARCHAR"), List.of(type.getColumn())),
+                values.stream().sorted().map(value -> new Object[]{value}).collect(Collectors.toList()));
+    }
+}
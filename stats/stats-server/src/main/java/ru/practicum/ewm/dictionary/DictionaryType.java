@@ -0,0 +1,22 @@
+package ru.practicum.ewm.dictionary;
+
+public enum DictionaryType {
+    APP("stats_apps", "name"),
+    URI("stats_uris", "uri");
+
+    private final String table;
+    private final String column;
+
+    DictionaryType(String table, String column) {
+        this.table = table;
+        this.column = column;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,206 @@
+package ru.practicum.ewm.dictionary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class StatDictionary {
+    private final DictionaryRepository dictionaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<DictionaryType, Map<String, Integer>> ids = new EnumMap<>(DictionaryType.class);
+    private final Map<DictionaryType, Map<Integer, String>> values = new EnumMap<>(DictionaryType.class);
+    private final Map<DictionaryType, Map<String, Long>> absent = new EnumMap<>(DictionaryType.class);
+    private final long absentTtlNanos;
+    private final int absentMaxSize;
+
+    @Autowired
+    public StatDictionary(DictionaryRepository dictionaryRepository, PlatformTransactionManager transactionManager,
+                          @Value("${stats.dictionary.negative-cache.ttl-ms}") long absentTtlMs,
+                          @Value("${stats.dictionary.negative-cache.max-size}") int absentMaxSize) {
+        this.dictionaryRepository = dictionaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.absentTtlNanos = TimeUnit.MILLISECONDS.toNanos(absentTtlMs);
+        this.absentMaxSize = absentMaxSize;
+        for (DictionaryType type : DictionaryType.values()) {
+            ids.put(type, new ConcurrentHashMap<>());
+            values.put(type, new ConcurrentHashMap<>());
+            absent.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        for (DictionaryType type : DictionaryType.values()) {
+            dictionaryRepository.findAll(type, (id, value) -> put(type, id, value));
+        }
+        log.info("Справочники загружены: {} приложений, {} адресов",
+                ids.get(DictionaryType.APP).size(), ids.get(DictionaryType.URI).size());
+    }
+
+    public void resolve(List<Stat> stats) {
+        Set<String> apps = new HashSet<>();
+        Set<String> uris = new HashSet<>();
+        for (Stat stat : stats) {
+            apps.add(stat.getApp());
+            uris.add(stat.getUri());
+        }
+        Map<String, Integer> appIds = getOrCreateIds(DictionaryType.APP, apps);
+        Map<String, Integer> uriIds = getOrCreateIds(DictionaryType.URI, uris);
+        for (Stat stat : stats) {
+            stat.setAppId(appIds.get(stat.getApp()));
+            stat.setUriId(uriIds.get(stat.getUri()));
+        }
+    }
+
+    public List<Integer> findUriIds(Collection<String> uris) {
+        Map<String, Integer> uriIds = ids.get(DictionaryType.URI);
+        List<Integer> found = new ArrayList<>();
+        Set<String> missing = new HashSet<>();
+        for (String uri : uris) {
+            Integer id = uriIds.get(uri);
+            if (id != null) {
+                found.add(id);
+            } else if (!isKnownAbsent(DictionaryType.URI, uri)) {
+                missing.add(uri);
+            }
+        }
+        if (!missing.isEmpty()) {
+            dictionaryRepository.findIds(DictionaryType.URI, missing).forEach((uri, id) -> {
+                put(DictionaryType.URI, id, uri);
+                found.add(id);
+                missing.remove(uri);
+            });
+            missing.forEach(uri -> markAbsent(DictionaryType.URI, uri));
+        }
+        return found;
+    }
+
+    public List<String> findUrisByPrefix(String prefix) {
+        Map<String, Integer> found = dictionaryRepository.findByPrefix(DictionaryType.URI, prefix);
+        found.forEach((uri, id) -> put(DictionaryType.URI, id, uri));
+        return new ArrayList<>(found.keySet());
+    }
+
+    public String getApp(int id) {
+        return getValue(DictionaryType.APP, id);
+    }
+
+    public String getUri(int id) {
+        return getValue(DictionaryType.URI, id);
+    }
+
+    public Integer getAppId(String app) {
+        return getId(DictionaryType.APP, app);
+    }
+
+    public Integer getUriId(String uri) {
+        return getId(DictionaryType.URI, uri);
+    }
+
+    public StatDto toStatDto(int appId, int uriId, long hits) {
+        return StatDto.builder()
+                .app(getApp(appId))
+                .uri(getUri(uriId))
+                .hits(hits)
+                .build();
+    }
+
+    private Map<String, Integer> getOrCreateIds(DictionaryType type, Set<String> requested) {
+        Map<String, Integer> cached = ids.get(type);
+        Map<String, Integer> result = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String value : requested) {
+            Integer id = cached.get(value);
+            if (id != null) {
+                result.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Integer> created = transactionTemplate.execute(status -> {
+                dictionaryRepository.insertMissing(type, missing);
+                return dictionaryRepository.findIds(type, missing);
+            });
+            created.forEach((value, id) -> {
+                put(type, id, value);
+                result.put(value, id);
+            });
+        }
+        return result;
+    }
+
+    private Integer getId(DictionaryType type, String value) {
+        Integer id = ids.get(type).get(value);
+        if (id == null && !isKnownAbsent(type, value)) {
+            id = dictionaryRepository.findIds(type, List.of(value)).get(value);
+            if (id != null) {
+                put(type, id, value);
+            } else {
+                markAbsent(type, value);
+            }
+        }
+        return id;
+    }
+
+    private boolean isKnownAbsent(DictionaryType type, String value) {
+        Long expiresAt = absent.get(type).get(value);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt - System.nanoTime() > 0) {
+            return true;
+        }
+        absent.get(type).remove(value, expiresAt);
+        return false;
+    }
+
+    private void markAbsent(DictionaryType type, String value) {
+        Map<String, Long> misses = absent.get(type);
+        if (misses.size() >= absentMaxSize) {
+            misses.clear();
+        }
+        misses.put(value, System.nanoTime() + absentTtlNanos);
+        if (ids.get(type).containsKey(value)) {
+            misses.remove(value);
+        }
+    }
+
+    private String getValue(DictionaryType type, int id) {
+        String value = values.get(type).get(id);
+        if (value == null) {
+            value = dictionaryRepository.findValue(type, id);
+            if (value != null) {
+                put(type, id, value);
+            }
+        }
+        return value;
+    }
+
+    private void put(DictionaryType type, int id, String value) {
+        ids.get(type).put(value, id);
+        values.get(type).put(id, value);
+        absent.get(type).remove(value);
+    }
+}
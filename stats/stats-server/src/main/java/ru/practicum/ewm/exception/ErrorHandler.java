@@ -23,4 +23,11 @@ public class ErrorHandler {
         log.info(e.getMessage(), e);
         return new ErrorResponse("Некорректный запрос", e.getMessage());
     }
+
+    @ExceptionHandler({ServiceUnavailableException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceUnavailable(final RuntimeException e) {
+        log.warn(e.getMessage());
+        return new ErrorResponse("Сервис перегружен", e.getMessage());
+    }
 }
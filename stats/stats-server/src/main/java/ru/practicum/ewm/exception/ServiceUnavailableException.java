@@ -0,0 +1,8 @@
+package ru.practicum.ewm.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String msg) {
+        super(msg);
+    }
+
+}
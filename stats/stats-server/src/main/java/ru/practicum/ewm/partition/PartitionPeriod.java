@@ -0,0 +1,18 @@
+package ru.practicum.ewm.partition;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum PartitionPeriod {
+    DAY,
+    MONTH;
+
+    public LocalDateTime floor(LocalDateTime dateTime) {
+        LocalDateTime day = dateTime.truncatedTo(ChronoUnit.DAYS);
+        return this == DAY ? day : day.withDayOfMonth(1);
+    }
+
+    public LocalDateTime plus(LocalDateTime dateTime, long periods) {
+        return this == DAY ? dateTime.plusDays(periods) : dateTime.plusMonths(periods);
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.ewm.partition;
+
+public enum RetentionAction {
+    DROP,
+    DETACH
+}
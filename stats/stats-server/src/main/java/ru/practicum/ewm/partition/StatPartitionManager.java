@@ -0,0 +1,259 @@
+package ru.practicum.ewm.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.rollup.RollupService;
+import ru.practicum.ewm.sketch.SketchService;
+import ru.practicum.ewm.stat.DatabaseDialect;
+import ru.practicum.ewm.total.TotalService;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+@Slf4j
+public class StatPartitionManager {
+    private static final Pattern BOUNDS = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String DEFAULT_PARTITION = "stats_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RollupService rollupService;
+    private final SketchService sketchService;
+    private final TotalService totalService;
+    private final boolean enabled;
+    private final PartitionPeriod period;
+    private final int premake;
+    private final int retentionPeriods;
+    private final RetentionAction retentionAction;
+    private final ConcurrentSkipListMap<LocalDateTime, LocalDateTime> partitions = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public StatPartitionManager(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                RollupService rollupService, SketchService sketchService, TotalService totalService,
+                                DatabaseDialect dialect,
+                                @Value("${stats.partition.enabled}") boolean enabled,
+                                @Value("${stats.partition.period}") PartitionPeriod period,
+                                @Value("${stats.partition.premake}") int premake,
+                                @Value("${stats.partition.retention-periods}") int retentionPeriods,
+                                @Value("${stats.partition.retention-action}") RetentionAction retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupService = rollupService;
+        this.sketchService = sketchService;
+        this.totalService = totalService;
+        this.enabled = enabled && dialect == DatabaseDialect.POSTGRESQL;
+        this.period = period;
+        this.premake = Math.max(premake, 1);
+        this.retentionPeriods = retentionPeriods;
+        this.retentionAction = retentionAction;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        String kind = jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('stats')",
+                String.class);
+        if (!"p".equals(kind)) {
+            transactionTemplate.executeWithoutResult(status -> convert());
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF stats DEFAULT");
+        loadPartitions();
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.partition.maintenance-interval-ms}",
+            initialDelayString = "${stats.partition.maintenance-interval-ms}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime current = period.floor(LocalDateTime.now());
+        for (int i = 0; i <= premake; i++) {
+            ensurePartition(period.plus(current, i));
+        }
+        splitDefaultPartition();
+        if (retentionPeriods > 0) {
+            applyRetention(period.plus(current, -retentionPeriods));
+        }
+    }
+
+    private void splitDefaultPartition() {
+        List<LocalDateTime> stray = jdbcTemplate.query("SELECT DISTINCT DATE_TRUNC('" + period.name().toLowerCase()
+                + "', created) AS period FROM " + DEFAULT_PARTITION, (rs, rowNum) ->
+                rs.getTimestamp("period").toLocalDateTime());
+        if (stray.isEmpty()) {
+            return;
+        }
+        log.warn("В секции {} есть просмотры за {} периодов, выделяем для них секции", DEFAULT_PARTITION,
+                stray.size());
+        stray.forEach(this::ensurePartition);
+    }
+
+    private synchronized void ensurePartition(LocalDateTime dateTime) {
+        if (isCovered(dateTime)) {
+            return;
+        }
+        try {
+            createPartition(dateTime);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось создать секцию для {}, перечитываем список секций: {}", dateTime, e.getMessage());
+            loadPartitions();
+            if (!isCovered(dateTime)) {
+                createPartition(dateTime);
+            }
+        }
+    }
+
+    private boolean isCovered(LocalDateTime dateTime) {
+        Map.Entry<LocalDateTime, LocalDateTime> partition = partitions.floorEntry(dateTime);
+        return partition != null && dateTime.isBefore(partition.getValue());
+    }
+
+    private void createPartition(LocalDateTime dateTime) {
+        LocalDateTime from = period.floor(dateTime);
+        LocalDateTime to = period.plus(from, 1);
+        Map.Entry<LocalDateTime, LocalDateTime> previous = partitions.floorEntry(dateTime);
+        if (previous != null && previous.getValue().isAfter(from)) {
+            from = previous.getValue();
+        }
+        LocalDateTime next = partitions.higherKey(dateTime);
+        if (next != null && next.isBefore(to)) {
+            to = next;
+        }
+        String name = "stats_p" + from.format(NAME_FORMAT);
+        String lower = from.format(BOUND_FORMAT);
+        String upper = to.format(BOUND_FORMAT);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE stats INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE created >= '" + lower + "' AND created < '" + upper + "' RETURNING *) "
+                    + "INSERT INTO " + name + " SELECT * FROM moved");
+            jdbcTemplate.execute("ALTER TABLE stats ATTACH PARTITION " + name + " FOR VALUES FROM ('" + lower
+                    + "') TO ('" + upper + "')");
+            if (moved > 0) {
+                log.info("В секцию {} перенесено {} просмотров из {}", name, moved, DEFAULT_PARTITION);
+            }
+        });
+        partitions.put(from, to);
+        log.info("Создана секция {} для просмотров с {} по {}", name, from, to);
+    }
+
+    private synchronized void applyRetention(LocalDateTime cutoff) {
+        List<String> expired = new ArrayList<>();
+        LocalDateTime[] retainedFrom = new LocalDateTime[1];
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'stats'::regclass", rs -> {
+                    Matcher matcher = BOUNDS.matcher(rs.getString("bound"));
+                    if (!matcher.find()) {
+                        return;
+                    }
+                    LocalDateTime upper = LocalDateTime.parse(matcher.group(2), BOUND_FORMAT);
+                    if (!upper.isAfter(cutoff)) {
+                        expired.add(rs.getString("relname"));
+                        if (retainedFrom[0] == null || upper.isAfter(retainedFrom[0])) {
+                            retainedFrom[0] = upper;
+                        }
+                    }
+                });
+        if (expired.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String name : expired) {
+                if (retentionAction == RetentionAction.DETACH) {
+                    jdbcTemplate.execute("ALTER TABLE stats DETACH PARTITION " + name);
+                    jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO "
+                            + name.replace("stats_p", "stats_archive_"));
+                } else {
+                    jdbcTemplate.execute("DROP TABLE " + name);
+                }
+                log.info("Секция {} исключена по сроку хранения ({})", name, retentionAction);
+            }
+            rollupService.pruneBefore(retainedFrom[0]);
+            sketchService.pruneBefore(retainedFrom[0]);
+            totalService.rebuild();
+        });
+        log.info("Агрегаты и итоговые счётчики просмотров до {} удалены вслед за секциями", retainedFrom[0]);
+        loadPartitions();
+    }
+
+    private synchronized void loadPartitions() {
+        partitions.clear();
+        jdbcTemplate.query("SELECT pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'stats'::regclass", rs -> {
+                    Matcher matcher = BOUNDS.matcher(rs.getString("bound"));
+                    if (matcher.find()) {
+                        partitions.put(LocalDateTime.parse(matcher.group(1), BOUND_FORMAT),
+                                LocalDateTime.parse(matcher.group(2), BOUND_FORMAT));
+                    }
+                });
+    }
+
+    private void convert() {
+        log.info("Перевод таблицы stats на секционирование по {}", period);
+        jdbcTemplate.execute("LOCK TABLE stats IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE stats RENAME TO stats_unpartitioned");
+        jdbcTemplate.execute("ALTER TABLE stats_unpartitioned RENAME CONSTRAINT pk_stat TO pk_stat_unpartitioned");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_stats_created RENAME TO idx_stats_unpartitioned_created");
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS stats_id_seq RENAME TO stats_unpartitioned_id_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE stats_id_seq");
+        jdbcTemplate.execute("CREATE TABLE stats (LIKE stats_unpartitioned INCLUDING DEFAULTS) "
+                + "PARTITION BY RANGE (created)");
+        jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN id SET DEFAULT nextval('stats_id_seq')");
+        jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN created SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE stats ADD CONSTRAINT pk_stat PRIMARY KEY (id, created)");
+        jdbcTemplate.execute("ALTER SEQUENCE stats_id_seq OWNED BY stats.id");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF stats DEFAULT");
+        jdbcTemplate.query("SELECT MIN(created) AS first, MAX(created) AS last FROM stats_unpartitioned", rs -> {
+            Timestamp first = rs.getTimestamp("first");
+            Timestamp last = rs.getTimestamp("last");
+            if (first != null) {
+                for (LocalDateTime from = period.floor(first.toLocalDateTime());
+                     !from.isAfter(last.toLocalDateTime()); from = period.plus(from, 1)) {
+                    createPartition(from);
+                }
+            }
+        });
+        int copied = jdbcTemplate.update("INSERT INTO stats SELECT * FROM stats_unpartitioned "
+                + "WHERE created IS NOT NULL");
+        rejectUndated();
+        jdbcTemplate.execute("SELECT setval('stats_id_seq', COALESCE((SELECT MAX(id) FROM stats_unpartitioned), 0) + 1, "
+                + "false)");
+        jdbcTemplate.execute("DROP TABLE stats_unpartitioned");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_stats_created ON stats (created)");
+        log.info("Таблица stats секционирована, перенесено {} просмотров", copied);
+    }
+
+    private void rejectUndated() {
+        Integer undated = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats_unpartitioned WHERE created IS NULL",
+                Integer.class);
+        if (undated == null || undated == 0) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stats_rejected_created (LIKE stats_unpartitioned)");
+        jdbcTemplate.update("INSERT INTO stats_rejected_created SELECT * FROM stats_unpartitioned "
+                + "WHERE created IS NULL");
+        log.warn("{} просмотров без даты не попадают ни в одну секцию и перенесены в stats_rejected_created",
+                undated);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class RollupKey {
+    private final int appId;
+    private final int uriId;
+    private final LocalDateTime bucket;
+}
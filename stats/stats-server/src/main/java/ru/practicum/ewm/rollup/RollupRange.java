@@ -0,0 +1,51 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class RollupRange {
+    private final RollupResolution resolution;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public boolean isRaw() {
+        return resolution == null;
+    }
+
+    public static List<RollupRange> split(LocalDateTime from, LocalDateTime to) {
+        return split(from, to, List.of(RollupResolution.values()));
+    }
+
+    public static List<RollupRange> split(LocalDateTime from, LocalDateTime to, List<RollupResolution> resolutions) {
+        List<RollupRange> ranges = new ArrayList<>();
+        split(from, to, resolutions, 0, ranges);
+        return ranges;
+    }
+
+    private static void split(LocalDateTime from, LocalDateTime to, List<RollupResolution> resolutions, int level,
+                              List<RollupRange> ranges) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == resolutions.size()) {
+            ranges.add(new RollupRange(null, from, to));
+            return;
+        }
+        RollupResolution resolution = resolutions.get(level);
+        LocalDateTime bucketsFrom = resolution.ceil(from);
+        LocalDateTime bucketsTo = resolution.floor(to);
+        if (bucketsFrom.isBefore(bucketsTo)) {
+            split(from, bucketsFrom, resolutions, level + 1, ranges);
+            ranges.add(new RollupRange(resolution, bucketsFrom, bucketsTo));
+            split(bucketsTo, to, resolutions, level + 1, ranges);
+        } else {
+            split(from, to, resolutions, level + 1, ranges);
+        }
+    }
+}
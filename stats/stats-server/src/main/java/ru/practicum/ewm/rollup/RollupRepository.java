@@ -0,0 +1,25 @@
+package ru.practicum.ewm.rollup;
+
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface RollupRepository {
+    void addHits(List<Stat> stats);
+
+    void rebuild();
+
+    void deleteBefore(LocalDateTime bound);
+
+    boolean isStale();
+
+    List<StatDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app, StatPage page);
+
+    List<StatDto> findStatsBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app);
+
+    void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app, Consumer<StatDto> consumer);
+}
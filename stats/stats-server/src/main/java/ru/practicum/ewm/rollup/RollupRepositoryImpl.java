@@ -0,0 +1,164 @@
+package ru.practicum.ewm.rollup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.stat.DatabaseDialect;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+@Repository
+public class RollupRepositoryImpl implements RollupRepository {
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparingInt(RollupKey::getUriId)
+            .thenComparingInt(RollupKey::getAppId)
+            .thenComparing(RollupKey::getBucket);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DatabaseDialect dialect;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final StatDictionary statDictionary;
+
+    @Autowired
+    public RollupRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                DatabaseDialect dialect, StatDictionary statDictionary,
+                                @Value("${stats.stream.fetch-size}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.dialect = dialect;
+        this.statDictionary = statDictionary;
+        JdbcTemplate cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(streamFetchSize);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+    }
+
+    @Override
+    public void addHits(List<Stat> stats) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            Map<RollupKey, Long> hits = new TreeMap<>(KEY_ORDER);
+            for (Stat stat : stats) {
+                RollupKey key = new RollupKey(stat.getAppId(), stat.getUriId(), resolution.floor(stat.getTimestamp()));
+                hits.merge(key, 1L, Long::sum);
+            }
+            List<Object[]> rows = new ArrayList<>(hits.size());
+            hits.forEach((key, count) -> rows.add(new Object[]{key.getAppId(), key.getUriId(),
+                    Timestamp.valueOf(key.getBucket()), count}));
+            jdbcTemplate.batchUpdate(dialect.upsertIncrementSql(resolution.getTable(),
+                    List.of("app_id", "uri_id", "bucket"), List.of("INTEGER", "INTEGER", "TIMESTAMP"), List.of("hits")), rows);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        if (dialect == DatabaseDialect.POSTGRESQL) {
+            jdbcTemplate.execute("LOCK TABLE stats IN SHARE MODE");
+        }
+        for (RollupResolution resolution : RollupResolution.values()) {
+            jdbcTemplate.update("DELETE FROM " + resolution.getTable());
+            jdbcTemplate.update("INSERT INTO " + resolution.getTable() + " (app_id, uri_id, bucket, hits) "
+                    + "SELECT app_id, uri_id, DATE_TRUNC('" + resolution.getTruncUnit() + "', created), COUNT(*) "
+                    + "FROM stats "
+                    + "WHERE created IS NOT NULL "
+                    + "GROUP BY app_id, uri_id, DATE_TRUNC('" + resolution.getTruncUnit() + "', created)");
+        }
+    }
+
+    @Override
+    public void deleteBefore(LocalDateTime bound) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            jdbcTemplate.update("DELETE FROM " + resolution.getTable() + " WHERE bucket < ?", Timestamp.valueOf(bound));
+        }
+    }
+
+    @Override
+    public boolean isStale() {
+        Boolean stale = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM stats) "
+                + "AND NOT EXISTS (SELECT 1 FROM " + RollupResolution.DAY.getTable() + ")", Boolean.class);
+        return Boolean.TRUE.equals(stale);
+    }
+
+    @Override
+    public List<StatDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app, StatPage page) {
+        List<StatDto> stats = new ArrayList<>();
+        query(namedJdbcTemplate, start, end.plusNanos(1000), uris, app, page, stats::add);
+        return stats;
+    }
+
+    @Override
+    public List<StatDto> findStatsBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        List<StatDto> stats = new ArrayList<>();
+        query(namedJdbcTemplate, start, end, uris, app, StatPage.ALL, stats::add);
+        return stats;
+    }
+
+    @Override
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app, Consumer<StatDto> consumer) {
+        query(streamingJdbcTemplate, start, end.plusNanos(1000), uris, app, StatPage.ALL, consumer);
+    }
+
+    private void query(NamedParameterJdbcTemplate template, LocalDateTime from, LocalDateTime to,
+                       List<String> uris, String app, StatPage page, Consumer<StatDto> consumer) {
+        Integer[] uriIds = null;
+        if (uris != null && !uris.isEmpty()) {
+            uriIds = statDictionary.findUriIds(uris).toArray(new Integer[0]);
+            if (uriIds.length == 0) {
+                return;
+            }
+        }
+        Integer appId = null;
+        if (app != null) {
+            appId = statDictionary.getAppId(app);
+            if (appId == null) {
+                return;
+            }
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("uriIds", uriIds)
+                .addValue("appId", appId);
+        List<String> parts = new ArrayList<>();
+        List<RollupRange> ranges = RollupRange.split(from, to);
+        for (int i = 0; i < ranges.size(); i++) {
+            RollupRange range = ranges.get(i);
+            parameters.addValue("from" + i, range.getFrom());
+            parameters.addValue("to" + i, range.getTo());
+            StringBuilder part = new StringBuilder();
+            if (range.isRaw()) {
+                part.append("SELECT app_id, uri_id, COUNT(*) AS hits FROM stats ")
+                        .append("WHERE created >= :from").append(i).append(" AND created < :to").append(i);
+            } else {
+                part.append("SELECT app_id, uri_id, hits FROM ").append(range.getResolution().getTable())
+                        .append(" WHERE bucket >= :from").append(i).append(" AND bucket < :to").append(i);
+            }
+            if (uriIds != null) {
+                part.append(" AND uri_id = ANY(:uriIds)");
+            }
+            if (appId != null) {
+                part.append(" AND app_id = :appId");
+            }
+            if (range.isRaw()) {
+                part.append(" GROUP BY app_id, uri_id");
+            }
+            parts.add(part.toString());
+        }
+        StringBuilder query = new StringBuilder("SELECT app_id, uri_id, SUM(hits) AS hits FROM (")
+                .append(String.join(" UNION ALL ", parts))
+                .append(") AS parts GROUP BY app_id, uri_id");
+        page.appendSql(query, "SUM(hits)", parameters);
+        template.query(query.toString(), parameters, rs -> {
+            consumer.accept(statDictionary.toStatDto(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.ewm.rollup;
+
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface RollupService {
+    void rebuild();
+
+    void pruneBefore(LocalDateTime bound);
+
+    List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, StatPage page);
+
+    List<StatDto> getStatBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app);
+
+    void streamStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, Consumer<StatDto> consumer);
+}
@@ -0,0 +1,66 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatIngestListener;
+import ru.practicum.ewm.stat.StatPage;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class RollupServiceImpl implements RollupService, StatIngestListener {
+    private final RollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public RollupServiceImpl(RollupRepository rollupRepository, TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (rollupRepository.isStale()) {
+            log.info("Агрегаты просмотров отсутствуют, пересчёт по исходным данным");
+            rebuild();
+        }
+    }
+
+    @Override
+    public void onWrite(List<Stat> stats) {
+        rollupRepository.addHits(stats);
+    }
+
+    @Override
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.rebuild());
+    }
+
+    @Override
+    public void pruneBefore(LocalDateTime bound) {
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.deleteBefore(bound));
+    }
+
+    @Override
+    public List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, StatPage page) {
+        return rollupRepository.findStats(start, end, uris, app, page);
+    }
+
+    @Override
+    public List<StatDto> getStatBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        return rollupRepository.findStatsBefore(start, end, uris, app);
+    }
+
+    @Override
+    public void streamStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, Consumer<StatDto> consumer) {
+        rollupRepository.streamStats(start, end, uris, app, consumer);
+    }
+}
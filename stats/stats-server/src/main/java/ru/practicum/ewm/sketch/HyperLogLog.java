@@ -0,0 +1,229 @@
+package ru.practicum.ewm.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class HyperLogLog {
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    private final int precision;
+    private final int registerCount;
+    private byte[] dense;
+    private int[] sparse;
+    private int sparseSize;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Недопустимая точность HyperLogLog: " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.sparse = new int[4];
+    }
+
+    public static int precisionForError(double error) {
+        int precision = (int) Math.ceil(Math.log(Math.pow(1.04 / error, 2)) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    public static long hash(byte[] value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rho = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        set(index, rho);
+    }
+
+    public void merge(HyperLogLog other) {
+        HyperLogLog source = other.precision > precision ? other.fold(precision) : other;
+        if (source.precision < precision) {
+            throw new IllegalArgumentException("Нельзя объединить HyperLogLog с меньшей точностью");
+        }
+        if (source.dense != null) {
+            for (int i = 0; i < registerCount; i++) {
+                if (source.dense[i] != 0) {
+                    set(i, source.dense[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < source.sparseSize; i++) {
+                set(source.sparse[i] >>> 8, source.sparse[i] & 0xff);
+            }
+        }
+    }
+
+    public static HyperLogLog union(HyperLogLog target, HyperLogLog other) {
+        if (other.precision < target.precision) {
+            HyperLogLog folded = target.fold(other.precision);
+            folded.merge(other);
+            return folded;
+        }
+        target.merge(other);
+        return target;
+    }
+
+    public HyperLogLog fold(int targetPrecision) {
+        if (targetPrecision == precision) {
+            return this;
+        }
+        if (targetPrecision > precision) {
+            throw new IllegalArgumentException("Нельзя повысить точность HyperLogLog");
+        }
+        HyperLogLog folded = new HyperLogLog(targetPrecision);
+        int shift = precision - targetPrecision;
+        forEachRegister((index, rho) -> {
+            int lowBits = index & ((1 << shift) - 1);
+            int newRho = lowBits == 0 ? shift + rho : Integer.numberOfLeadingZeros(lowBits) - (32 - shift) + 1;
+            folded.set(index >>> shift, newRho);
+        });
+        return folded;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = registerCount;
+        if (dense != null) {
+            zeros = 0;
+            for (byte register : dense) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xff));
+            }
+            zeros -= sparseSize;
+            sum += zeros;
+        }
+        double estimate = alpha() * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        if (dense != null) {
+            return ByteBuffer.allocate(2 + registerCount)
+                    .put((byte) precision)
+                    .put(DENSE)
+                    .put(dense)
+                    .array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 4 * sparseSize)
+                .put((byte) precision)
+                .put(SPARSE);
+        for (int i = 0; i < sparseSize; i++) {
+            buffer.putInt(sparse[i]);
+        }
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        if (buffer.get() == DENSE) {
+            sketch.dense = new byte[sketch.registerCount];
+            buffer.get(sketch.dense);
+            sketch.sparse = null;
+        } else {
+            sketch.sparseSize = buffer.remaining() / 4;
+            sketch.sparse = new int[Math.max(4, sketch.sparseSize)];
+            for (int i = 0; i < sketch.sparseSize; i++) {
+                sketch.sparse[i] = buffer.getInt();
+            }
+        }
+        return sketch;
+    }
+
+    private void set(int index, int rho) {
+        if (dense != null) {
+            if (dense[index] < rho) {
+                dense[index] = (byte) rho;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(sparse, 0, sparseSize, index << 8);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position < sparseSize && sparse[position] >>> 8 == index) {
+            if ((sparse[position] & 0xff) < rho) {
+                sparse[position] = index << 8 | rho;
+            }
+            return;
+        }
+        if (sparseSize >= registerCount / 4) {
+            toDense();
+            set(index, rho);
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = index << 8 | rho;
+        sparseSize++;
+    }
+
+    private void toDense() {
+        dense = new byte[registerCount];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparse[i] >>> 8] = (byte) (sparse[i] & 0xff);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private void forEachRegister(RegisterConsumer consumer) {
+        if (dense != null) {
+            for (int i = 0; i < registerCount; i++) {
+                if (dense[i] != 0) {
+                    consumer.accept(i, dense[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < sparseSize; i++) {
+                consumer.accept(sparse[i] >>> 8, sparse[i] & 0xff);
+            }
+        }
+    }
+
+    private double alpha() {
+        switch (registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / registerCount);
+        }
+    }
+
+    private interface RegisterConsumer {
+        void accept(int index, int rho);
+    }
+}
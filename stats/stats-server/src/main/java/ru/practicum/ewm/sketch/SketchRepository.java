@@ -0,0 +1,19 @@
+package ru.practicum.ewm.sketch;
+
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SketchRepository {
+    void addHits(List<Stat> stats);
+
+    void rebuild();
+
+    void deleteBefore(LocalDateTime bound);
+
+    boolean isStale();
+
+    List<StatDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app);
+}
@@ -0,0 +1,232 @@
+package ru.practicum.ewm.sketch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.rollup.RollupKey;
+import ru.practicum.ewm.rollup.RollupRange;
+import ru.practicum.ewm.rollup.RollupResolution;
+import ru.practicum.ewm.stat.DatabaseDialect;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Repository
+public class SketchRepositoryImpl implements SketchRepository {
+    private static final List<RollupResolution> RESOLUTIONS = List.of(RollupResolution.DAY, RollupResolution.HOUR);
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparingInt(RollupKey::getUriId)
+            .thenComparingInt(RollupKey::getAppId)
+            .thenComparing(RollupKey::getBucket);
+    private static final int LOCK_CHUNK_SIZE = 100;
+    private static final int REBUILD_FETCH_SIZE = 10_000;
+    private static final int REBUILD_BATCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DatabaseDialect dialect;
+    private final StatDictionary statDictionary;
+    private final int precision;
+
+    @Autowired
+    public SketchRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                DatabaseDialect dialect, StatDictionary statDictionary,
+                                @Value("${stats.sketch.error}") double error) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.dialect = dialect;
+        this.statDictionary = statDictionary;
+        this.precision = HyperLogLog.precisionForError(error);
+    }
+
+    @Override
+    public void addHits(List<Stat> stats) {
+        for (RollupResolution resolution : RESOLUTIONS) {
+            Map<RollupKey, HyperLogLog> sketches = new TreeMap<>(KEY_ORDER);
+            for (Stat stat : stats) {
+                RollupKey key = new RollupKey(stat.getAppId(), stat.getUriId(), resolution.floor(stat.getTimestamp()));
+                sketches.computeIfAbsent(key, k -> new HyperLogLog(precision)).addHash(HyperLogLog.hash(stat.getIp()));
+            }
+            List<RollupKey> keys = new ArrayList<>(sketches.keySet());
+            List<Object[]> rows = keys.stream()
+                    .map(key -> new Object[]{key.getAppId(), key.getUriId(), Timestamp.valueOf(key.getBucket()),
+                            sketches.get(key).toBytes()})
+                    .collect(Collectors.toList());
+            int[] inserted = jdbcTemplate.batchUpdate(dialect.insertIfAbsentSql(table(resolution),
+                    List.of("app_id", "uri_id", "bucket", "registers"), List.of("INTEGER", "INTEGER", "TIMESTAMP", "BYTEA"),
+                    List.of("uri_id", "app_id", "bucket")), rows);
+            List<RollupKey> existing = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                if (inserted[i] != 1) {
+                    existing.add(keys.get(i));
+                }
+            }
+            for (int from = 0; from < existing.size(); from += LOCK_CHUNK_SIZE) {
+                mergeExisting(resolution, existing.subList(from, Math.min(from + LOCK_CHUNK_SIZE, existing.size())),
+                        sketches);
+            }
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        if (dialect == DatabaseDialect.POSTGRESQL) {
+            jdbcTemplate.execute("LOCK TABLE stats IN SHARE MODE");
+        }
+        for (RollupResolution resolution : RESOLUTIONS) {
+            jdbcTemplate.update("DELETE FROM " + table(resolution));
+        }
+        Map<RollupResolution, RollupKey> currentKeys = new HashMap<>();
+        Map<RollupResolution, HyperLogLog> currentSketches = new HashMap<>();
+        Map<RollupResolution, List<Object[]>> rows = new HashMap<>();
+        RESOLUTIONS.forEach(resolution -> rows.put(resolution, new ArrayList<>()));
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement("SELECT app_id, uri_id, created, ip FROM stats "
+                    + "WHERE created IS NOT NULL ORDER BY uri_id, app_id, created");
+            statement.setFetchSize(REBUILD_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            int appId = rs.getInt("app_id");
+            int uriId = rs.getInt("uri_id");
+            LocalDateTime created = rs.getTimestamp("created").toLocalDateTime();
+            long hash = HyperLogLog.hash(rs.getBytes("ip"));
+            for (RollupResolution resolution : RESOLUTIONS) {
+                RollupKey key = new RollupKey(appId, uriId, resolution.floor(created));
+                RollupKey current = currentKeys.get(resolution);
+                if (current == null || KEY_ORDER.compare(current, key) != 0) {
+                    if (current != null) {
+                        addRebuildRow(resolution, current, currentSketches.get(resolution), rows.get(resolution));
+                    }
+                    currentKeys.put(resolution, key);
+                    currentSketches.put(resolution, new HyperLogLog(precision));
+                }
+                currentSketches.get(resolution).addHash(hash);
+            }
+        });
+        for (RollupResolution resolution : RESOLUTIONS) {
+            if (currentKeys.containsKey(resolution)) {
+                addRebuildRow(resolution, currentKeys.get(resolution), currentSketches.get(resolution),
+                        rows.get(resolution));
+            }
+            insertRows(resolution, rows.get(resolution));
+        }
+    }
+
+    @Override
+    public void deleteBefore(LocalDateTime bound) {
+        for (RollupResolution resolution : RESOLUTIONS) {
+            jdbcTemplate.update("DELETE FROM " + table(resolution) + " WHERE bucket < ?", Timestamp.valueOf(bound));
+        }
+    }
+
+    @Override
+    public boolean isStale() {
+        Boolean stale = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM stats) "
+                + "AND NOT EXISTS (SELECT 1 FROM " + table(RollupResolution.DAY) + ")", Boolean.class);
+        return Boolean.TRUE.equals(stale);
+    }
+
+    @Override
+    public List<StatDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        Integer[] uriIds = null;
+        if (uris != null && !uris.isEmpty()) {
+            uriIds = statDictionary.findUriIds(uris).toArray(new Integer[0]);
+            if (uriIds.length == 0) {
+                return List.of();
+            }
+        }
+        Integer appId = null;
+        if (app != null) {
+            appId = statDictionary.getAppId(app);
+            if (appId == null) {
+                return List.of();
+            }
+        }
+        Map<Integer, Map<Integer, HyperLogLog>> sketches = new HashMap<>();
+        for (RollupRange range : RollupRange.split(start, end.plusNanos(1000), RESOLUTIONS)) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("uriIds", uriIds)
+                    .addValue("appId", appId)
+                    .addValue("from", range.getFrom())
+                    .addValue("to", range.getTo());
+            String query = range.isRaw()
+                    ? "SELECT app_id, uri_id, ip FROM stats WHERE created >= :from AND created < :to"
+                    : "SELECT app_id, uri_id, registers FROM " + table(range.getResolution())
+                    + " WHERE bucket >= :from AND bucket < :to";
+            if (uriIds != null) {
+                query += " AND uri_id = ANY(:uriIds)";
+            }
+            if (appId != null) {
+                query += " AND app_id = :appId";
+            }
+            namedJdbcTemplate.query(query, parameters, rs -> {
+                Map<Integer, HyperLogLog> byUri = sketches.computeIfAbsent(rs.getInt("app_id"), id -> new HashMap<>());
+                if (range.isRaw()) {
+                    byUri.computeIfAbsent(rs.getInt("uri_id"), uri -> new HyperLogLog(precision))
+                            .addHash(HyperLogLog.hash(rs.getBytes("ip")));
+                } else {
+                    byUri.merge(rs.getInt("uri_id"), HyperLogLog.fromBytes(rs.getBytes("registers")),
+                            HyperLogLog::union);
+                }
+            });
+        }
+        List<StatDto> stats = new ArrayList<>();
+        sketches.forEach((sketchAppId, byUri) -> byUri.forEach((uriId, sketch) ->
+                stats.add(statDictionary.toStatDto(sketchAppId, uriId, sketch.estimate()))));
+        return stats;
+    }
+
+    private void mergeExisting(RollupResolution resolution, List<RollupKey> keys, Map<RollupKey, HyperLogLog> sketches) {
+        List<Object> parameters = new ArrayList<>();
+        for (RollupKey key : keys) {
+            parameters.add(key.getUriId());
+            parameters.add(key.getAppId());
+            parameters.add(Timestamp.valueOf(key.getBucket()));
+        }
+        String query = "SELECT app_id, uri_id, bucket, registers FROM " + table(resolution)
+                + " WHERE (uri_id, app_id, bucket) IN ("
+                + String.join(", ", Collections.nCopies(keys.size(), "(?, ?, ?)"))
+                + ") ORDER BY uri_id, app_id, bucket FOR UPDATE";
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(query, rs -> {
+            RollupKey key = new RollupKey(rs.getInt("app_id"), rs.getInt("uri_id"),
+                    rs.getTimestamp("bucket").toLocalDateTime());
+            HyperLogLog sketch = HyperLogLog.union(HyperLogLog.fromBytes(rs.getBytes("registers")),
+                    Objects.requireNonNull(sketches.get(key)));
+            rows.add(new Object[]{sketch.toBytes(), key.getUriId(), key.getAppId(), Timestamp.valueOf(key.getBucket())});
+        }, parameters.toArray());
+        jdbcTemplate.batchUpdate("UPDATE " + table(resolution) + " SET registers = ? "
+                + "WHERE uri_id = ? AND app_id = ? AND bucket = ?", rows);
+    }
+
+    private void addRebuildRow(RollupResolution resolution, RollupKey key, HyperLogLog sketch, List<Object[]> rows) {
+        rows.add(new Object[]{key.getAppId(), key.getUriId(), Timestamp.valueOf(key.getBucket()), sketch.toBytes()});
+        if (rows.size() >= REBUILD_BATCH_SIZE) {
+            insertRows(resolution, rows);
+        }
+    }
+
+    private void insertRows(RollupResolution resolution, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + table(resolution) + " (app_id, uri_id, bucket, registers) "
+                + "VALUES (?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private String table(RollupResolution resolution) {
+        return "stats_sketch_" + resolution.getTruncUnit();
+    }
+}
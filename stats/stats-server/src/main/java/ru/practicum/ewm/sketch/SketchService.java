@@ -0,0 +1,14 @@
+package ru.practicum.ewm.sketch;
+
+import ru.practicum.ewm.stat.StatDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SketchService {
+    void rebuild();
+
+    void pruneBefore(LocalDateTime bound);
+
+    List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app);
+}
@@ -0,0 +1,54 @@
+package ru.practicum.ewm.sketch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatIngestListener;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class SketchServiceImpl implements SketchService, StatIngestListener {
+    private final SketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SketchServiceImpl(SketchRepository sketchRepository, TransactionTemplate transactionTemplate) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (sketchRepository.isStale()) {
+            log.info("Скетчи уникальных просмотров отсутствуют, пересчёт по исходным данным");
+            rebuild();
+        }
+    }
+
+    @Override
+    public void onWrite(List<Stat> stats) {
+        sketchRepository.addHits(stats);
+    }
+
+    @Override
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> sketchRepository.rebuild());
+    }
+
+    @Override
+    public void pruneBefore(LocalDateTime bound) {
+        transactionTemplate.executeWithoutResult(status -> sketchRepository.deleteBefore(bound));
+    }
+
+    @Override
+    public List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        return sketchRepository.findStats(start, end, uris, app);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.ewm.stat;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public enum DatabaseDialect {
+    POSTGRESQL,
+    H2;
+
+    public static DatabaseDialect detect(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL : H2;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Не удалось определить тип базы данных", e);
+        }
+    }
+
+    public String upsertIncrementSql(String table, List<String> keyColumns, List<String> keyTypes, List<String> counters) {
+        List<String> columns = Stream.concat(keyColumns.stream(), counters.stream())
+                .collect(Collectors.toList());
+        if (this == POSTGRESQL) {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")"
+                    + " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET "
+                    + counters.stream()
+                    .map(c -> c + " = " + table + "." + c + " + EXCLUDED." + c)
+                    .collect(Collectors.joining(", "));
+        }
+        return "MERGE INTO " + table + " t USING (VALUES ("
+                + Stream.concat(keyTypes.stream(), counters.stream().map(c -> "BIGINT"))
+                .map(type -> "CAST(? AS " + type + ")")
+                .collect(Collectors.joining(", "))
+                + ")) AS s(" + String.join(", ", columns) + ")"
+                + " ON " + keyColumns.stream().map(c -> "t." + c + " = s." + c).collect(Collectors.joining(" AND "))
+                + " WHEN MATCHED THEN UPDATE SET "
+                + counters.stream().map(c -> c + " = t." + c + " + s." + c).collect(Collectors.joining(", "))
+                + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(c -> "s." + c).collect(Collectors.joining(", ")) + ")";
+    }
+
+    public String insertIfAbsentSql(String table, List<String> columns, List<String> types, List<String> keyColumns) {
+        if (this == POSTGRESQL) {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")"
+                    + " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO NOTHING";
+        }
+        return "MERGE INTO " + table + " t USING (VALUES ("
+                + types.stream().map(type -> "CAST(? AS " + type + ")").collect(Collectors.joining(", "))
+                + ")) AS s(" + String.join(", ", columns) + ")"
+                + " ON " + keyColumns.stream().map(c -> "t." + c + " = s." + c).collect(Collectors.joining(" AND "))
+                + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(c -> "s." + c).collect(Collectors.joining(", ")) + ")";
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.ewm.stat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.hit.HitErrorDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class HitBuffer {
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+    private static final long RETRY_WARN_INTERVAL_MS = 5_000;
+
+    private final StatWriter statWriter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<Stat> queue;
+    private final Object producerLock = new Object();
+    private final CountDownLatch stopping = new CountDownLatch(1);
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter rejectedCounter;
+    private final Counter lostCounter;
+    private final Thread flusher;
+    private volatile boolean running;
+    private volatile long shutdownDeadline = Long.MAX_VALUE;
+    private long lastRetryWarning;
+
+    @Autowired
+    public HitBuffer(StatWriter statWriter, MeterRegistry meterRegistry,
+                     @Value("${stats.ingest.async.enabled}") boolean enabled,
+                     @Value("${stats.ingest.async.capacity}") int capacity,
+                     @Value("${stats.ingest.async.batch-size}") int batchSize,
+                     @Value("${stats.ingest.async.flush-interval-ms}") long flushIntervalMs,
+                     @Value("${stats.ingest.async.shutdown-timeout-ms}") long shutdownTimeoutMs) {
+        this.statWriter = statWriter;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushTimer = Timer.builder("stats.ingest.flush")
+                .description("Время записи пакета просмотров из буфера")
+                .register(meterRegistry);
+        this.flushedCounter = meterRegistry.counter("stats.ingest.flushed");
+        this.rejectedCounter = meterRegistry.counter("stats.ingest.rejected");
+        this.lostCounter = meterRegistry.counter("stats.ingest.lost");
+        Gauge.builder("stats.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Количество просмотров, ожидающих записи")
+                .register(meterRegistry);
+        this.flusher = new Thread(this::run, "stats-hit-flusher");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            running = true;
+            flusher.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        shutdownDeadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        synchronized (producerLock) {
+            running = false;
+        }
+        stopping.countDown();
+        flusher.join();
+        List<Stat> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (System.currentTimeMillis() >= shutdownDeadline) {
+                lose(batch.size() + queue.size(), "истекло время остановки");
+                queue.clear();
+                break;
+            }
+            flush(batch);
+            batch.clear();
+        }
+        log.info("Буфер просмотров остановлен");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean offer(Stat stat) {
+        return offerAll(List.of(stat));
+    }
+
+    public boolean offerAll(List<Stat> stats) {
+        synchronized (producerLock) {
+            if (running && queue.remainingCapacity() >= stats.size()) {
+                stats.forEach(queue::add);
+                return true;
+            }
+        }
+        rejectedCounter.increment(stats.size());
+        return false;
+    }
+
+    private void run() {
+        List<Stat> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Stat first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Stat next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Поток записи просмотров прерван");
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+    }
+
+    private void flush(List<Stat> batch) {
+        long delay = flushIntervalMs;
+        while (true) {
+            try {
+                flushTimer.record(() -> statWriter.writeBatch(batch));
+                flushedCounter.increment(batch.size());
+                return;
+            } catch (DataAccessResourceFailureException | TransientDataAccessException
+                     | RecoverableDataAccessException e) {
+                long remaining = shutdownDeadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    lose(batch.size(), e.getMessage());
+                    return;
+                }
+                long wait = Math.min(delay, remaining);
+                warnRetry(batch.size(), wait, e.getMessage());
+                try {
+                    if (running) {
+                        stopping.await(wait, TimeUnit.MILLISECONDS);
+                    } else {
+                        Thread.sleep(wait);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    lose(batch.size(), "поток записи прерван");
+                    return;
+                }
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+            } catch (RuntimeException e) {
+                log.warn("Пакет из {} просмотров не записан, запись по одному: {}", batch.size(), e.getMessage());
+                break;
+            }
+        }
+        List<HitErrorDto> errors = statWriter.writeAll(batch);
+        flushedCounter.increment(batch.size() - errors.size());
+        if (!errors.isEmpty()) {
+            lostCounter.increment(errors.size());
+            log.error("Потеряно {} просмотров из буфера, первая ошибка: {}", errors.size(), errors.get(0).getError());
+        }
+    }
+
+    private void warnRetry(int count, long wait, String reason) {
+        long now = System.currentTimeMillis();
+        if (now - lastRetryWarning >= RETRY_WARN_INTERVAL_MS) {
+            lastRetryWarning = now;
+            log.warn("База недоступна, повтор записи {} просмотров через {} мс: {}", count, wait, reason);
+        } else {
+            log.debug("База недоступна, повтор записи {} просмотров через {} мс: {}", count, wait, reason);
+        }
+    }
+
+    private void lose(int count, String reason) {
+        lostCounter.increment(count);
+        log.error("Не записано {} принятых просмотров: {}", count, reason);
+    }
+}
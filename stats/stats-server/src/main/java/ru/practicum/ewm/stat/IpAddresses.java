@@ -0,0 +1,117 @@
+package ru.practicum.ewm.stat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IpAddresses {
+    private static final int IPV6_GROUPS = 8;
+
+    private IpAddresses() {
+    }
+
+    public static byte[] parse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("ip: адрес не указан");
+        }
+        String address = value.trim();
+        int zone = address.indexOf('%');
+        if (zone >= 0) {
+            address = address.substring(0, zone);
+        }
+        byte[] bytes = address.indexOf(':') >= 0 ? parseIpv6(address) : parseIpv4(address);
+        if (bytes == null) {
+            throw new IllegalArgumentException("ip: некорректный IP-адрес " + value);
+        }
+        return bytes;
+    }
+
+    private static byte[] parseIpv4(String address) {
+        String[] parts = address.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.isEmpty() || part.length() > 3 || !part.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                return null;
+            }
+            int octet = Integer.parseInt(part);
+            if (octet > 255) {
+                return null;
+            }
+            bytes[i] = (byte) octet;
+        }
+        return bytes;
+    }
+
+    private static byte[] parseIpv6(String address) {
+        int gap = address.indexOf("::");
+        if (gap >= 0 && address.indexOf("::", gap + 1) >= 0) {
+            return null;
+        }
+        List<Integer> head = parseGroups(gap >= 0 ? address.substring(0, gap) : address, gap < 0);
+        List<Integer> tail = gap >= 0 ? parseGroups(address.substring(gap + 2), true) : List.of();
+        if (head == null || tail == null) {
+            return null;
+        }
+        int groups = head.size() + tail.size();
+        if (gap < 0 ? groups != IPV6_GROUPS : groups >= IPV6_GROUPS) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < head.size(); i++) {
+            putGroup(bytes, i, head.get(i));
+        }
+        for (int i = 0; i < tail.size(); i++) {
+            putGroup(bytes, IPV6_GROUPS - tail.size() + i, tail.get(i));
+        }
+        if (isIpv4Mapped(bytes)) {
+            return new byte[]{bytes[12], bytes[13], bytes[14], bytes[15]};
+        }
+        return bytes;
+    }
+
+    private static List<Integer> parseGroups(String part, boolean allowIpv4) {
+        List<Integer> groups = new ArrayList<>();
+        if (part.isEmpty()) {
+            return groups;
+        }
+        String[] items = part.split(":", -1);
+        for (int i = 0; i < items.length; i++) {
+            String item = items[i];
+            if (allowIpv4 && i == items.length - 1 && item.indexOf('.') >= 0) {
+                byte[] ipv4 = parseIpv4(item);
+                if (ipv4 == null) {
+                    return null;
+                }
+                groups.add((ipv4[0] & 0xff) << 8 | ipv4[1] & 0xff);
+                groups.add((ipv4[2] & 0xff) << 8 | ipv4[3] & 0xff);
+                continue;
+            }
+            if (item.isEmpty() || item.length() > 4 || !item.chars().allMatch(IpAddresses::isHexDigit)) {
+                return null;
+            }
+            groups.add(Integer.parseInt(item, 16));
+        }
+        return groups;
+    }
+
+    private static boolean isHexDigit(int c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    private static void putGroup(byte[] bytes, int group, int value) {
+        bytes[group * 2] = (byte) (value >>> 8);
+        bytes[group * 2 + 1] = (byte) value;
+    }
+
+    private static boolean isIpv4Mapped(byte[] bytes) {
+        for (int i = 0; i < 10; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return bytes[10] == (byte) 0xff && bytes[11] == (byte) 0xff;
+    }
+}
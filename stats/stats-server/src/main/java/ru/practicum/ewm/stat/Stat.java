@@ -20,13 +20,15 @@ public class Stat {
     Long id;
     String app;
     String uri;
-    String ip;
+    Integer appId;
+    Integer uriId;
+    byte[] ip;
     LocalDateTime timestamp;
 
     public Map<String, Object> toMap() {
         Map<String, Object> values = new HashMap<>();
-        values.put("app", app);
-        values.put("uri", uri);
+        values.put("app_id", appId);
+        values.put("uri_id", uriId);
         values.put("ip", ip);
         values.put("created", timestamp);
         return values;
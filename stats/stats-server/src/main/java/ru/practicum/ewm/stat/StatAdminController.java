@@ -0,0 +1,46 @@
+package ru.practicum.ewm.stat;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.ewm.hit.HitBatchResultDto;
+import ru.practicum.ewm.rollup.RollupService;
+import ru.practicum.ewm.sketch.SketchService;
+import ru.practicum.ewm.total.TotalService;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+public class StatAdminController {
+    private final StatBulkLoader statBulkLoader;
+    private final RollupService rollupService;
+    private final SketchService sketchService;
+    private final TotalService totalService;
+
+    @PostMapping(value = "/admin/hit/load", consumes = {"application/x-ndjson", "text/plain"})
+    ResponseEntity<HitBatchResultDto> loadHits(HttpServletRequest request) throws IOException {
+        return new ResponseEntity<>(statBulkLoader.load(request.getInputStream()), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/admin/rollup/rebuild")
+    ResponseEntity<Object> rebuildRollups() {
+        rollupService.rebuild();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PostMapping("/admin/sketch/rebuild")
+    ResponseEntity<Object> rebuildSketches() {
+        sketchService.rebuild();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PostMapping("/admin/totals/rebuild")
+    ResponseEntity<Object> rebuildTotals() {
+        totalService.rebuild();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.ewm.stat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.hit.HitBatchResultDto;
+import ru.practicum.ewm.hit.HitDto;
+import ru.practicum.ewm.hit.HitErrorDto;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class StatBulkLoader {
+    private final StatWriter statWriter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    @Autowired
+    public StatBulkLoader(StatWriter statWriter, ObjectMapper objectMapper, Validator validator,
+                          @Value("${stats.bulk-load.chunk-size}") int chunkSize,
+                          @Value("${stats.bulk-load.max-errors}") int maxErrors) {
+        this.statWriter = statWriter;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public HitBatchResultDto load(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<HitErrorDto> errors = new ArrayList<>();
+        List<Stat> chunk = new ArrayList<>(chunkSize);
+        List<Integer> lines = new ArrayList<>(chunkSize);
+        int accepted = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int index = lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            HitDto hitDto;
+            try {
+                hitDto = objectMapper.readValue(line, HitDto.class);
+            } catch (JsonProcessingException e) {
+                addError(errors, index, e.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<HitDto>> violations = validator.validate(hitDto);
+            if (!violations.isEmpty()) {
+                addError(errors, index, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+            try {
+                chunk.add(StatMapper.mapToStat(hitDto));
+            } catch (IllegalArgumentException e) {
+                addError(errors, index, e.getMessage());
+                continue;
+            }
+            lines.add(index);
+            if (chunk.size() >= chunkSize) {
+                accepted += flush(chunk, lines, errors);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            accepted += flush(chunk, lines, errors);
+        }
+        log.info("Загружено {} просмотров из {} строк", accepted, lineNumber);
+        return new HitBatchResultDto(accepted, errors);
+    }
+
+    private int flush(List<Stat> chunk, List<Integer> lines, List<HitErrorDto> errors) {
+        int accepted = chunk.size();
+        try {
+            statWriter.writeBulk(chunk);
+        } catch (DataAccessException e) {
+            log.warn("Загрузка пакета не удалась, запись по одному: {}", e.getMessage());
+            for (HitErrorDto error : statWriter.writeAll(chunk)) {
+                addError(errors, lines.get(error.getIndex()), error.getError());
+                accepted--;
+            }
+        }
+        chunk.clear();
+        lines.clear();
+        return accepted;
+    }
+
+    private void addError(List<HitErrorDto> errors, int index, String message) {
+        if (errors.size() < maxErrors) {
+            errors.add(new HitErrorDto(index, message));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.ewm.stat;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableScheduling
+public class StatConfig {
+    @Bean
+    public DatabaseDialect databaseDialect(DataSource dataSource) {
+        return DatabaseDialect.detect(dataSource);
+    }
+}
@@ -1,24 +1,39 @@
 package ru.practicum.ewm.stat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.ewm.hit.HitBatchResultDto;
 import ru.practicum.ewm.hit.HitDto;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class StatController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final StatService statService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     ResponseEntity<String> addHit(@RequestBody @Valid HitDto hitDto) {
@@ -26,12 +41,104 @@ public class StatController {
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    @PostMapping("/hit/batch")
+    ResponseEntity<HitBatchResultDto> addHits(@RequestBody List<HitDto> hitDtos) {
+        return new ResponseEntity<>(statService.createAll(hitDtos), HttpStatus.CREATED);
+    }
+
     @GetMapping("/stats")
-    ResponseEntity<List<StatDto>> getStat(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
-                                          @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+    ResponseEntity<List<StatDto>> getStat(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                          @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
                                           @RequestParam(required = false) List<String> uris,
-                                          @RequestParam(required = false) boolean unique) {
-        List<StatDto> stats = statService.getStat(start, end, uris, unique);
+                                          @RequestParam(required = false) String app,
+                                          @RequestParam(required = false) boolean unique,
+                                          @RequestParam(required = false) boolean approximate,
+                                          @RequestParam(required = false) boolean allTime,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String cursor) {
+        StatPage page = StatPage.of(limit, cursor);
+        List<StatDto> stats = allTime
+                ? statService.getAllTimeStat(uris, app, unique, page)
+                : statService.getStat(start, end, uris, app, unique, approximate, page);
+        return toPageResponse(stats, page);
+    }
+
+    @GetMapping("/stats/keys")
+    ResponseEntity<List<StatKeyDto>> getStatByKey(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                                  @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                                  @RequestParam String pattern,
+                                                  @RequestParam(required = false) List<Long> keys,
+                                                  @RequestParam(required = false) String app,
+                                                  @RequestParam(required = false) boolean unique,
+                                                  @RequestParam(required = false) boolean approximate,
+                                                  @RequestParam(required = false) boolean allTime) {
+        List<StatKeyDto> stats = statService.getStatByKey(start, end, pattern, keys, app, unique, approximate,
+                allTime);
         return new ResponseEntity<>(stats, HttpStatus.OK);
     }
+
+    @PostMapping("/stats/query")
+    ResponseEntity<List<StatDto>> queryStat(@RequestBody @Valid StatQueryDto query) {
+        StatPage page = StatPage.of(query.getLimit(), query.getCursor());
+        List<StatDto> stats = query.isAllTime()
+                ? statService.getAllTimeStat(query.getUris(), query.getApp(), query.isUnique(), page)
+                : statService.getStat(query.getStart(), query.getEnd(), query.getUris(), query.getApp(),
+                query.isUnique(), query.isApproximate(), page);
+        return toPageResponse(stats, page);
+    }
+
+    @GetMapping("/stats/top")
+    ResponseEntity<List<StatDto>> getTopStat(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                             @RequestParam(required = false) List<String> uris,
+                                             @RequestParam(required = false) String app,
+                                             @RequestParam(required = false) boolean unique,
+                                             @RequestParam(required = false) boolean approximate,
+                                             @RequestParam(required = false) boolean allTime,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        StatPage page = StatPage.of(limit, null);
+        List<StatDto> stats = allTime
+                ? statService.getAllTimeStat(uris, app, unique, page)
+                : statService.getStat(start, end, uris, app, unique, approximate, page);
+        return new ResponseEntity<>(page.trim(stats), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/stats", params = "stream=true")
+    ResponseEntity<StreamingResponseBody> streamStat(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                                     @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                                     @RequestParam(required = false) List<String> uris,
+                                                     @RequestParam(required = false) String app,
+                                                     @RequestParam(required = false) boolean unique,
+                                                     @RequestParam(required = false) boolean approximate,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        statService.checkPeriod(start, end);
+        boolean ndjson = accept != null && accept.contains(NDJSON.toString());
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = output -> {
+            try (SequenceWriter sequence = ndjson
+                    ? writer.withRootValueSeparator("\n").writeValues(output)
+                    : writer.writeValuesAsArray(output)) {
+                statService.streamStat(start, end, uris, app, unique, approximate, stat -> {
+                    try {
+                        sequence.write(stat);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<List<StatDto>> toPageResponse(List<StatDto> stats, StatPage page) {
+        String nextCursor = statService.getNextCursor(stats, page);
+        if (nextCursor == null) {
+            return new ResponseEntity<>(stats, HttpStatus.OK);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, nextCursor)
+                .body(page.trim(stats));
+    }
 }
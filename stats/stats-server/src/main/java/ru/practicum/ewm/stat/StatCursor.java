@@ -0,0 +1,43 @@
+package ru.practicum.ewm.stat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+@Getter
+@AllArgsConstructor
+public class StatCursor implements Comparable<StatCursor> {
+    private static final Comparator<StatCursor> ORDER = Comparator.comparingLong(StatCursor::getHits).reversed()
+            .thenComparingInt(StatCursor::getAppId)
+            .thenComparingInt(StatCursor::getUriId);
+
+    private final long hits;
+    private final int appId;
+    private final int uriId;
+
+    public static StatCursor decode(String value) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new StatCursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректный курсор " + value);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((hits + ":" + appId + ":" + uriId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(StatCursor other) {
+        return ORDER.compare(this, other);
+    }
+}
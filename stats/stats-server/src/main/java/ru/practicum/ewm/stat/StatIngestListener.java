@@ -0,0 +1,7 @@
+package ru.practicum.ewm.stat;
+
+import java.util.List;
+
+public interface StatIngestListener {
+    void onWrite(List<Stat> stats);
+}
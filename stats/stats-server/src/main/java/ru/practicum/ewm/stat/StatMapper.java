@@ -6,7 +6,7 @@ public class StatMapper {
     public static Stat mapToStat(HitDto hitDto) {
         return Stat.builder()
                 .app(hitDto.getApp())
-                .ip(hitDto.getIp())
+                .ip(IpAddresses.parse(hitDto.getIp()))
                 .uri(hitDto.getUri())
                 .timestamp(hitDto.getTimestamp())
                 .build();
@@ -0,0 +1,55 @@
+package ru.practicum.ewm.stat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class StatPage {
+    public static final StatPage ALL = new StatPage(null, null);
+
+    private final Integer limit;
+    private final StatCursor after;
+
+    public static StatPage of(Integer limit, String cursor) {
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("Лимит должен быть положительным");
+        }
+        return new StatPage(limit, cursor == null || cursor.isBlank() ? null : StatCursor.decode(cursor));
+    }
+
+    public boolean isLimited() {
+        return limit != null;
+    }
+
+    public int getFetchSize() {
+        return limit + 1;
+    }
+
+    public boolean hasMore(List<StatDto> stats) {
+        return limit != null && stats.size() > limit;
+    }
+
+    public List<StatDto> trim(List<StatDto> stats) {
+        return hasMore(stats) ? stats.subList(0, limit) : stats;
+    }
+
+    public void appendSql(StringBuilder query, String hits, MapSqlParameterSource parameters) {
+        if (after != null) {
+            query.append(" HAVING ").append(hits).append(" < :afterHits OR (").append(hits)
+                    .append(" = :afterHits AND (app_id > :afterAppId OR (app_id = :afterAppId AND uri_id > :afterUriId)))");
+            parameters.addValue("afterHits", after.getHits())
+                    .addValue("afterAppId", after.getAppId())
+                    .addValue("afterUriId", after.getUriId());
+        }
+        query.append(" ORDER BY hits DESC, app_id, uri_id");
+        if (limit != null) {
+            query.append(" LIMIT :limit");
+            parameters.addValue("limit", getFetchSize());
+        }
+    }
+}
@@ -2,9 +2,20 @@ package ru.practicum.ewm.stat;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatRepository {
     Stat create(Stat stat);
 
-    List<StatDto> findStatsByStartDateAndEndDate(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
+    void createAll(List<Stat> stats);
+
+    void copyAll(List<Stat> stats);
+
+    List<StatDto> findStatsByStartDateAndEndDate(LocalDateTime start, LocalDateTime end, List<String> uris, String app, boolean unique,
+                                                 StatPage page);
+
+    List<StatDto> findStatsBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app);
+
+    void streamStatsByStartDateAndEndDate(LocalDateTime start, LocalDateTime end, List<String> uris, String app, boolean unique,
+                                          Consumer<StatDto> consumer);
 }
@@ -1,28 +1,49 @@
 package ru.practicum.ewm.stat;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.dictionary.StatDictionary;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public class StatRepositoryImpl implements StatRepository {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DatabaseDialect dialect;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final StatDictionary statDictionary;
 
 
     @Autowired
-    public StatRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+    public StatRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                              DatabaseDialect dialect, StatDictionary statDictionary,
+                              @Value("${stats.stream.fetch-size}") int streamFetchSize) {
         this.jdbcTemplate = jdbcTemplate;
         this.namedJdbcTemplate = namedJdbcTemplate;
+        this.dialect = dialect;
+        this.statDictionary = statDictionary;
+        JdbcTemplate cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(streamFetchSize);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
     }
 
     @Override
@@ -36,34 +57,126 @@ public class StatRepositoryImpl implements StatRepository {
     }
 
     @Override
-    public List<StatDto> findStatsByStartDateAndEndDate(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+    public void createAll(List<Stat> stats) {
+        ParameterizedPreparedStatementSetter<Stat> setter = (ps, stat) -> {
+            ps.setInt(1, stat.getAppId());
+            ps.setInt(2, stat.getUriId());
+            ps.setBytes(3, stat.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(stat.getTimestamp()));
+        };
+        jdbcTemplate.batchUpdate("INSERT INTO stats (app_id, uri_id, ip, created) VALUES (?, ?, ?, ?)",
+                stats, stats.size(), setter);
+    }
+
+    @Override
+    public void copyAll(List<Stat> stats) {
+        if (dialect != DatabaseDialect.POSTGRESQL) {
+            createAll(stats);
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn("COPY stats (app_id, uri_id, ip, created) FROM STDIN WITH (FORMAT csv)");
+            try {
+                StringBuilder row = new StringBuilder();
+                for (Stat stat : stats) {
+                    row.setLength(0);
+                    row.append(stat.getAppId()).append(',');
+                    row.append(stat.getUriId()).append(',');
+                    appendHex(row, stat.getIp()).append(',');
+                    row.append(stat.getTimestamp()).append('\n');
+                    byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<StatDto> findStatsByStartDateAndEndDate(LocalDateTime start, LocalDateTime end, List<String> uris, String app,
+                                                        boolean unique, StatPage page) {
+        List<StatDto> stats = new ArrayList<>();
+        query(namedJdbcTemplate, start, end, true, uris, app, unique, page, stats::add);
+        return stats;
+    }
+
+    @Override
+    public List<StatDto> findStatsBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        List<StatDto> stats = new ArrayList<>();
+        query(namedJdbcTemplate, start, end, false, uris, app, false, StatPage.ALL, stats::add);
+        return stats;
+    }
+
+    @Override
+    public void streamStatsByStartDateAndEndDate(LocalDateTime start, LocalDateTime end, List<String> uris, String app,
+                                                 boolean unique, Consumer<StatDto> consumer) {
+        query(streamingJdbcTemplate, start, end, true, uris, app, unique, StatPage.ALL, consumer);
+    }
+
+    private void query(NamedParameterJdbcTemplate template, LocalDateTime start, LocalDateTime end,
+                       boolean endInclusive, List<String> uris, String app, boolean unique, StatPage page,
+                       Consumer<StatDto> consumer) {
+        Integer[] uriIds = null;
+        if (uris != null && !uris.isEmpty()) {
+            uriIds = statDictionary.findUriIds(uris).toArray(new Integer[0]);
+            if (uriIds.length == 0) {
+                return;
+            }
+        }
+        Integer appId = null;
+        if (app != null) {
+            appId = statDictionary.getAppId(app);
+            if (appId == null) {
+                return;
+            }
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end)
+                .addValue("uriIds", uriIds)
+                .addValue("appId", appId);
+
+        String hits = unique ? "COUNT(DISTINCT ip)" : "COUNT(*)";
         StringBuilder query = new StringBuilder();
         query.append("SELECT ");
-        query.append("app, uri, ");
-        query.append("COUNT(").append(unique ? "DISTINCT ip" : "uri").append(") AS hits ");
+        query.append("app_id, uri_id, ");
+        query.append(hits).append(" AS hits ");
         query.append("FROM stats ");
-        query.append("WHERE created BETWEEN :start AND :end");
-        if (uris != null && !uris.isEmpty()) {
-            query.append(" AND uri IN (:uris)");
+        query.append(endInclusive
+                ? "WHERE created BETWEEN :start AND :end"
+                : "WHERE created >= :start AND created < :end");
+        if (uriIds != null) {
+            query.append(" AND uri_id = ANY(:uriIds)");
         }
-        query.append(" GROUP BY app, uri");
-        query.append(" ORDER BY hits DESC");
+        if (appId != null) {
+            query.append(" AND app_id = :appId");
+        }
+        query.append(" GROUP BY app_id, uri_id");
+        page.appendSql(query, hits, parameters);
 
         query.append(";");
 
-        SqlParameterSource parameters = new MapSqlParameterSource()
-                .addValue("start", start)
-                .addValue("end", end)
-                .addValue("uris", uris);
+        template.query(query.toString(), parameters, resultSet -> {
+            consumer.accept(mapRowToStatDto(resultSet));
+        });
+    }
 
-        return namedJdbcTemplate.query(query.toString(), parameters, this::mapRowToStatDto);
+    private StatDto mapRowToStatDto(ResultSet resultSet) throws SQLException {
+        return statDictionary.toStatDto(resultSet.getInt("app_id"), resultSet.getInt("uri_id"),
+                resultSet.getLong("hits"));
     }
 
-    private StatDto mapRowToStatDto(ResultSet resultSet, int rowNum) throws SQLException {
-        return StatDto.builder()
-                .app(resultSet.getString("app"))
-                .uri(resultSet.getString("uri"))
-                .hits(resultSet.getLong("hits"))
-                .build();
+    private static StringBuilder appendHex(StringBuilder row, byte[] value) {
+        row.append("\\x");
+        for (byte b : value) {
+            row.append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
+        }
+        return row;
     }
 }
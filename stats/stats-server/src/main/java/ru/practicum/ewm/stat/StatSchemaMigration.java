@@ -0,0 +1,123 @@
+package ru.practicum.ewm.stat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.List;
+
+@Component
+@Slf4j
+public class StatSchemaMigration {
+    private static final List<String> ROLLUP_TABLES = List.of("stats_rollup_minute", "stats_rollup_hour",
+            "stats_rollup_day");
+    private static final List<String> SKETCH_TABLES = List.of("stats_sketch_hour", "stats_sketch_day");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseDialect dialect;
+
+    @Autowired
+    public StatSchemaMigration(DataSource dataSource, TransactionTemplate transactionTemplate,
+                               DatabaseDialect dialect) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.dialect = dialect;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (columnType("app") != null) {
+            log.info("Перевод таблицы stats на справочники приложений и адресов");
+            transactionTemplate.executeWithoutResult(status -> migrateDictionaryColumns());
+        }
+        String ipType = columnType("ip");
+        if (ipType != null && ipType.toLowerCase().contains("char")) {
+            log.info("Перевод IP-адресов в таблице stats в двоичный вид");
+            transactionTemplate.executeWithoutResult(status -> migrateIpColumn());
+        }
+    }
+
+    private String columnType(String column) {
+        List<String> types = jdbcTemplate.queryForList("SELECT data_type FROM information_schema.columns "
+                + "WHERE LOWER(table_schema) = LOWER(CURRENT_SCHEMA) AND LOWER(table_name) = 'stats' "
+                + "AND LOWER(column_name) = ?", String.class, column);
+        return types.isEmpty() ? null : types.get(0);
+    }
+
+    private void migrateDictionaryColumns() {
+        jdbcTemplate.update("INSERT INTO stats_apps (name) SELECT DISTINCT app FROM stats "
+                + "WHERE app NOT IN (SELECT name FROM stats_apps)");
+        jdbcTemplate.update("INSERT INTO stats_uris (uri) SELECT DISTINCT uri FROM stats "
+                + "WHERE uri NOT IN (SELECT uri FROM stats_uris)");
+        jdbcTemplate.execute("ALTER TABLE stats ADD COLUMN app_id INTEGER");
+        jdbcTemplate.execute("ALTER TABLE stats ADD COLUMN uri_id INTEGER");
+        jdbcTemplate.update("UPDATE stats SET "
+                + "app_id = (SELECT a.id FROM stats_apps a WHERE a.name = stats.app), "
+                + "uri_id = (SELECT u.id FROM stats_uris u WHERE u.uri = stats.uri)");
+        jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN app_id SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN uri_id SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE stats DROP COLUMN app");
+        jdbcTemplate.execute("ALTER TABLE stats DROP COLUMN uri");
+        for (String table : ROLLUP_TABLES) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+        for (String table : SKETCH_TABLES) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+        jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            return null;
+        });
+    }
+
+    private void migrateIpColumn() {
+        if (dialect != DatabaseDialect.POSTGRESQL) {
+            throw new IllegalStateException("Перевод IP-адресов поддерживается только для PostgreSQL");
+        }
+        jdbcTemplate.execute("CREATE FUNCTION pg_temp.stats_ip_valid(value text) RETURNS boolean AS $$ "
+                + "DECLARE address inet; "
+                + "BEGIN "
+                + "address := CAST(value AS inet); "
+                + "RETURN masklen(address) = CASE family(address) WHEN 4 THEN 32 ELSE 128 END; "
+                + "EXCEPTION WHEN others THEN "
+                + "RETURN false; "
+                + "END $$ LANGUAGE plpgsql IMMUTABLE");
+        rejectInvalidIps();
+        jdbcTemplate.execute("CREATE FUNCTION pg_temp.stats_ip_bytes(value text) RETURNS bytea AS $$ "
+                + "DECLARE address bytea; "
+                + "BEGIN "
+                + "address := substring(inet_send(CAST(value AS inet)) FROM 5); "
+                + "IF length(address) = 16 AND substring(address FROM 1 FOR 12) = "
+                + "'\\x00000000000000000000ffff'::bytea THEN "
+                + "RETURN substring(address FROM 13); "
+                + "END IF; "
+                + "RETURN address; "
+                + "END $$ LANGUAGE plpgsql IMMUTABLE");
+        jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN ip TYPE BYTEA USING pg_temp.stats_ip_bytes(ip)");
+        for (String table : SKETCH_TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    private void rejectInvalidIps() {
+        List<String> samples = jdbcTemplate.queryForList("SELECT DISTINCT ip FROM stats "
+                + "WHERE NOT pg_temp.stats_ip_valid(ip) LIMIT 10", String.class);
+        if (samples.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stats_rejected_ip (LIKE stats INCLUDING DEFAULTS)");
+        int rejected = jdbcTemplate.update("WITH rejected AS (DELETE FROM stats "
+                + "WHERE NOT pg_temp.stats_ip_valid(ip) RETURNING *) "
+                + "INSERT INTO stats_rejected_ip SELECT * FROM rejected");
+        log.warn("{} просмотров с некорректным IP-адресом перенесены в stats_rejected_ip, примеры адресов: {}",
+                rejected, samples);
+    }
+}
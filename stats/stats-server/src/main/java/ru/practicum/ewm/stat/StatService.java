@@ -1,12 +1,29 @@
 package ru.practicum.ewm.stat;
 
+import ru.practicum.ewm.hit.HitBatchResultDto;
 import ru.practicum.ewm.hit.HitDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatService {
     void create(HitDto hitDto);
 
-    List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
+    HitBatchResultDto createAll(List<HitDto> hitDtos);
+
+    List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, boolean unique,
+                          boolean approximate, StatPage page);
+
+    List<StatDto> getAllTimeStat(List<String> uris, String app, boolean unique, StatPage page);
+
+    List<StatKeyDto> getStatByKey(LocalDateTime start, LocalDateTime end, String pattern, List<Long> keys, String app,
+                                  boolean unique, boolean approximate, boolean allTime);
+
+    String getNextCursor(List<StatDto> stats, StatPage page);
+
+    void checkPeriod(LocalDateTime start, LocalDateTime end);
+
+    void streamStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, boolean unique, boolean approximate,
+                    Consumer<StatDto> consumer);
 }
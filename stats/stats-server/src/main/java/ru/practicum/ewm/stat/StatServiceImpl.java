@@ -1,29 +1,290 @@
 package ru.practicum.ewm.stat;
 
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.dictionary.StatDictionary;
 import ru.practicum.ewm.exception.BadRequestException;
+import ru.practicum.ewm.exception.ServiceUnavailableException;
+import ru.practicum.ewm.hit.HitBatchResultDto;
 import ru.practicum.ewm.hit.HitDto;
+import ru.practicum.ewm.hit.HitErrorDto;
+import ru.practicum.ewm.rollup.RollupService;
+import ru.practicum.ewm.sketch.SketchService;
+import ru.practicum.ewm.total.TotalService;
+import ru.practicum.ewm.window.HotWindowIndex;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@AllArgsConstructor
 public class StatServiceImpl implements StatService {
     private final StatRepository statRepository;
+    private final StatWriter statWriter;
+    private final HitBuffer hitBuffer;
+    private final RollupService rollupService;
+    private final SketchService sketchService;
+    private final TotalService totalService;
+    private final HotWindowIndex hotWindowIndex;
+    private final StatDictionary statDictionary;
+    private final Validator validator;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int batchMaxSize;
+    private final boolean rollupEnabled;
+
+    @Autowired
+    public StatServiceImpl(StatRepository statRepository, StatWriter statWriter, HitBuffer hitBuffer,
+                           RollupService rollupService, SketchService sketchService, TotalService totalService,
+                           HotWindowIndex hotWindowIndex, StatDictionary statDictionary, Validator validator,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${stats.hit.batch.max-size}") int batchMaxSize,
+                           @Value("${stats.rollup.enabled}") boolean rollupEnabled) {
+        this.statRepository = statRepository;
+        this.statWriter = statWriter;
+        this.hitBuffer = hitBuffer;
+        this.rollupService = rollupService;
+        this.sketchService = sketchService;
+        this.totalService = totalService;
+        this.hotWindowIndex = hotWindowIndex;
+        this.statDictionary = statDictionary;
+        this.validator = validator;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchMaxSize = batchMaxSize;
+        this.rollupEnabled = rollupEnabled;
+    }
 
     @Override
     public void create(HitDto hitDto) {
-        Stat newStat = StatMapper.mapToStat(hitDto);
-        statRepository.create(newStat);
+        Stat newStat;
+        try {
+            newStat = StatMapper.mapToStat(hitDto);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        if (!hitBuffer.isEnabled()) {
+            statWriter.write(newStat);
+        } else if (!hitBuffer.offer(newStat)) {
+            throw new ServiceUnavailableException("Буфер просмотров переполнен");
+        }
+    }
+
+    @Override
+    public HitBatchResultDto createAll(List<HitDto> hitDtos) {
+        if (hitDtos == null || hitDtos.isEmpty()) {
+            throw new BadRequestException("Пакет просмотров пуст");
+        }
+        if (hitDtos.size() > batchMaxSize) {
+            throw new BadRequestException("Размер пакета превышает " + batchMaxSize);
+        }
+        List<HitErrorDto> errors = new ArrayList<>();
+        List<Stat> stats = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < hitDtos.size(); i++) {
+            HitDto hitDto = hitDtos.get(i);
+            if (hitDto == null) {
+                errors.add(new HitErrorDto(i, "Пустой элемент пакета"));
+                continue;
+            }
+            Set<ConstraintViolation<HitDto>> violations = validator.validate(hitDto);
+            if (!violations.isEmpty()) {
+                errors.add(new HitErrorDto(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "))));
+                continue;
+            }
+            try {
+                stats.add(StatMapper.mapToStat(hitDto));
+            } catch (IllegalArgumentException e) {
+                errors.add(new HitErrorDto(i, e.getMessage()));
+                continue;
+            }
+            indexes.add(i);
+        }
+
+        int accepted = stats.size();
+        if (hitBuffer.isEnabled()) {
+            if (!hitBuffer.offerAll(stats)) {
+                throw new ServiceUnavailableException("Буфер просмотров переполнен");
+            }
+        } else {
+            for (HitErrorDto error : statWriter.writeAll(stats)) {
+                errors.add(new HitErrorDto(indexes.get(error.getIndex()), error.getError()));
+                accepted--;
+            }
+        }
+        errors.sort((e1, e2) -> Integer.compare(e1.getIndex(), e2.getIndex()));
+        return new HitBatchResultDto(accepted, errors);
+    }
+
+    @Override
+    public List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, boolean unique,
+                                 boolean approximate, StatPage page) {
+        checkPeriod(start, end);
+        if (unique && approximate) {
+            return selectPage(sketchService.getStat(start, end, uris, app), page);
+        }
+        if (unique) {
+            return statRepository.findStatsByStartDateAndEndDate(start, end, uris, app, true, page);
+        }
+        if (hotWindowIndex.isEnabled()) {
+            LocalDateTime coverageStart = hotWindowIndex.getCoverageStart();
+            if (!start.isBefore(coverageStart)) {
+                return selectPage(hotWindowIndex.findStats(start, end, uris, app), page);
+            }
+            if (!end.isBefore(coverageStart)) {
+                return selectPage(mergeStats(countHitsBefore(start, coverageStart, uris, app),
+                        hotWindowIndex.findStats(coverageStart, end, uris, app)), page);
+            }
+        }
+        return countHits(start, end, uris, app, page);
+    }
+
+    @Override
+    public List<StatDto> getAllTimeStat(List<String> uris, String app, boolean unique, StatPage page) {
+        return totalService.getStat(uris, app, unique, page);
+    }
+
+    @Override
+    public List<StatKeyDto> getStatByKey(LocalDateTime start, LocalDateTime end, String pattern, List<Long> keys,
+                                         String app, boolean unique, boolean approximate, boolean allTime) {
+        if (!allTime) {
+            checkPeriod(start, end);
+        }
+        UriPattern uriPattern = UriPattern.parse(pattern);
+        List<String> uris;
+        if (keys != null && !keys.isEmpty()) {
+            uris = keys.stream()
+                    .filter(key -> key >= 0)
+                    .distinct()
+                    .map(uriPattern::toUri)
+                    .collect(Collectors.toList());
+        } else {
+            uris = statDictionary.findUrisByPrefix(uriPattern.getPrefix()).stream()
+                    .filter(uri -> uriPattern.extractKey(uri) != null)
+                    .collect(Collectors.toList());
+        }
+        if (uris.isEmpty()) {
+            return List.of();
+        }
+        List<StatDto> stats = allTime
+                ? getAllTimeStat(uris, app, unique, StatPage.ALL)
+                : getStat(start, end, uris, app, unique, approximate, StatPage.ALL);
+        return stats.stream()
+                .map(stat -> StatKeyDto.builder()
+                        .app(stat.getApp())
+                        .key(uriPattern.extractKey(stat.getUri()))
+                        .hits(stat.getHits())
+                        .build())
+                .collect(Collectors.toList());
     }
 
     @Override
-    public List<StatDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+    public String getNextCursor(List<StatDto> stats, StatPage page) {
+        if (!page.hasMore(stats)) {
+            return null;
+        }
+        return toCursor(stats.get(page.getLimit() - 1)).encode();
+    }
+
+    @Override
+    public void checkPeriod(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new BadRequestException("Не указан период");
+        }
         if (!start.isBefore(end)) {
             throw new BadRequestException("Дата начала позже даты конца периода");
         }
-        return statRepository.findStatsByStartDateAndEndDate(start, end, uris, unique);
+    }
+
+    @Override
+    public void streamStat(LocalDateTime start, LocalDateTime end, List<String> uris, String app, boolean unique,
+                           boolean approximate, Consumer<StatDto> consumer) {
+        checkPeriod(start, end);
+        if (unique && approximate) {
+            selectPage(sketchService.getStat(start, end, uris, app), StatPage.ALL).forEach(consumer);
+            return;
+        }
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            if (!unique && rollupEnabled) {
+                rollupService.streamStat(start, end, uris, app, consumer);
+            } else {
+                statRepository.streamStatsByStartDateAndEndDate(start, end, uris, app, unique, consumer);
+            }
+        });
+    }
+
+    private List<StatDto> countHits(LocalDateTime start, LocalDateTime end, List<String> uris, String app, StatPage page) {
+        if (rollupEnabled) {
+            return rollupService.getStat(start, end, uris, app, page);
+        }
+        return statRepository.findStatsByStartDateAndEndDate(start, end, uris, app, false, page);
+    }
+
+    private List<StatDto> countHitsBefore(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        if (rollupEnabled) {
+            return rollupService.getStatBefore(start, end, uris, app);
+        }
+        return statRepository.findStatsBefore(start, end, uris, app);
+    }
+
+    private List<StatDto> mergeStats(List<StatDto> older, List<StatDto> recent) {
+        Map<String, Map<String, Long>> hits = new LinkedHashMap<>();
+        Stream.concat(older.stream(), recent.stream()).forEach(stat -> hits
+                .computeIfAbsent(stat.getApp(), app -> new LinkedHashMap<>())
+                .merge(stat.getUri(), stat.getHits(), Long::sum));
+        List<StatDto> stats = new ArrayList<>();
+        hits.forEach((app, byUri) -> byUri.forEach((uri, count) -> stats.add(StatDto.builder()
+                .app(app)
+                .uri(uri)
+                .hits(count)
+                .build())));
+        return stats;
+    }
+
+    private List<StatDto> selectPage(List<StatDto> stats, StatPage page) {
+        Comparator<Map.Entry<StatCursor, StatDto>> order = Map.Entry.comparingByKey();
+        if (!page.isLimited()) {
+            return stats.stream()
+                    .map(stat -> Map.entry(toCursor(stat), stat))
+                    .filter(entry -> page.getAfter() == null || entry.getKey().compareTo(page.getAfter()) > 0)
+                    .sorted(order)
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList());
+        }
+        PriorityQueue<Map.Entry<StatCursor, StatDto>> top = new PriorityQueue<>(page.getFetchSize() + 1, order.reversed());
+        for (StatDto stat : stats) {
+            StatCursor cursor = toCursor(stat);
+            if (page.getAfter() != null && cursor.compareTo(page.getAfter()) <= 0) {
+                continue;
+            }
+            top.add(Map.entry(cursor, stat));
+            if (top.size() > page.getFetchSize()) {
+                top.poll();
+            }
+        }
+        return top.stream()
+                .sorted(order)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    private StatCursor toCursor(StatDto stat) {
+        return new StatCursor(stat.getHits(), statDictionary.getAppId(stat.getApp()),
+                statDictionary.getUriId(stat.getUri()));
     }
 }
@@ -0,0 +1,102 @@
+package ru.practicum.ewm.stat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.hit.HitErrorDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Slf4j
+public class StatWriter {
+    private final StatRepository statRepository;
+    private final StatDictionary statDictionary;
+    private final List<StatIngestListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate chunkTransactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public StatWriter(StatRepository statRepository, StatDictionary statDictionary, List<StatIngestListener> listeners,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${stats.hit.batch.chunk-size}") int chunkSize) {
+        this.statRepository = statRepository;
+        this.statDictionary = statDictionary;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    public void write(Stat stat) {
+        prepare(List.of(stat));
+        transactionTemplate.executeWithoutResult(status -> {
+            statRepository.create(stat);
+            notifyListeners(List.of(stat));
+        });
+    }
+
+    public void writeBatch(List<Stat> stats) {
+        prepare(stats);
+        transactionTemplate.executeWithoutResult(status -> {
+            statRepository.createAll(stats);
+            notifyListeners(stats);
+        });
+    }
+
+    public void writeBulk(List<Stat> stats) {
+        prepare(stats);
+        transactionTemplate.executeWithoutResult(status -> {
+            statRepository.copyAll(stats);
+            notifyListeners(stats);
+        });
+    }
+
+    public List<HitErrorDto> writeAll(List<Stat> stats) {
+        List<HitErrorDto> errors = new ArrayList<>();
+        for (int from = 0; from < stats.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, stats.size());
+            List<Stat> chunk = stats.subList(from, to);
+            prepare(chunk);
+            try {
+                chunkTransactionTemplate.executeWithoutResult(status -> {
+                    statRepository.createAll(chunk);
+                    notifyListeners(chunk);
+                });
+            } catch (DataAccessException e) {
+                log.warn("Пакетная запись не удалась, повтор по одному: {}", e.getMessage());
+                for (int i = from; i < to; i++) {
+                    Stat stat = stats.get(i);
+                    try {
+                        chunkTransactionTemplate.executeWithoutResult(status -> {
+                            statRepository.create(stat);
+                            notifyListeners(List.of(stat));
+                        });
+                    } catch (DataAccessException ex) {
+                        errors.add(new HitErrorDto(i, ex.getMostSpecificCause().getMessage()));
+                    }
+                }
+            }
+        }
+        return errors;
+    }
+
+    private void prepare(List<Stat> stats) {
+        statDictionary.resolve(stats);
+    }
+
+    private void notifyListeners(List<Stat> stats) {
+        for (StatIngestListener listener : listeners) {
+            listener.onWrite(stats);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.ewm.stat;
+
+import lombok.Getter;
+import ru.practicum.ewm.exception.BadRequestException;
+
+@Getter
+public class UriPattern {
+    private static final int MAX_KEY_LENGTH = 18;
+
+    private final String prefix;
+    private final String suffix;
+
+    private UriPattern(String prefix, String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    public static UriPattern parse(String pattern) {
+        int wildcard = pattern == null ? -1 : pattern.indexOf('*');
+        if (wildcard < 0 || pattern.indexOf('*', wildcard + 1) >= 0) {
+            throw new BadRequestException("Шаблон адреса должен содержать ровно один символ *: " + pattern);
+        }
+        return new UriPattern(pattern.substring(0, wildcard), pattern.substring(wildcard + 1));
+    }
+
+    public String toUri(long key) {
+        return prefix + key + suffix;
+    }
+
+    public Long extractKey(String uri) {
+        if (uri.length() <= prefix.length() + suffix.length() || !uri.startsWith(prefix) || !uri.endsWith(suffix)) {
+            return null;
+        }
+        String key = uri.substring(prefix.length(), uri.length() - suffix.length());
+        if (key.length() > MAX_KEY_LENGTH || key.length() > 1 && key.charAt(0) == '0'
+                || !key.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return null;
+        }
+        return Long.parseLong(key);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.ewm.total;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TotalKey {
+    private final int appId;
+    private final int uriId;
+}
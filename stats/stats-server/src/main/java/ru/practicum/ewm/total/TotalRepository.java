@@ -0,0 +1,17 @@
+package ru.practicum.ewm.total;
+
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+
+import java.util.List;
+
+public interface TotalRepository {
+    void addHits(List<Stat> stats);
+
+    void rebuild();
+
+    boolean isStale();
+
+    List<StatDto> findStats(List<String> uris, String app, boolean unique, StatPage page);
+}
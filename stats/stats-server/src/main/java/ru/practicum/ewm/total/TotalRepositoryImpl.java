@@ -0,0 +1,119 @@
+package ru.practicum.ewm.total;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.stat.DatabaseDialect;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Repository
+public class TotalRepositoryImpl implements TotalRepository {
+    private static final Comparator<TotalKey> KEY_ORDER = Comparator.comparingInt(TotalKey::getUriId)
+            .thenComparingInt(TotalKey::getAppId);
+    private static final Comparator<Stat> VISITOR_ORDER = Comparator.comparingInt(Stat::getUriId)
+            .thenComparingInt(Stat::getAppId)
+            .thenComparing(Stat::getIp, Arrays::compareUnsigned);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DatabaseDialect dialect;
+    private final StatDictionary statDictionary;
+
+    @Autowired
+    public TotalRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                               DatabaseDialect dialect, StatDictionary statDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.dialect = dialect;
+        this.statDictionary = statDictionary;
+    }
+
+    @Override
+    public void addHits(List<Stat> stats) {
+        Map<TotalKey, long[]> totals = new TreeMap<>(KEY_ORDER);
+        TreeSet<Stat> visitors = new TreeSet<>(VISITOR_ORDER);
+        for (Stat stat : stats) {
+            totals.computeIfAbsent(new TotalKey(stat.getAppId(), stat.getUriId()), key -> new long[2])[0]++;
+            visitors.add(stat);
+        }
+        List<Stat> candidates = new ArrayList<>(visitors);
+        int[] inserted = jdbcTemplate.batchUpdate(dialect.insertIfAbsentSql("stats_visitors",
+                List.of("app_id", "uri_id", "ip"), List.of("INTEGER", "INTEGER", "BYTEA"),
+                List.of("uri_id", "app_id", "ip")), candidates.stream()
+                .map(stat -> new Object[]{stat.getAppId(), stat.getUriId(), stat.getIp()})
+                .collect(Collectors.toList()));
+        for (int i = 0; i < candidates.size(); i++) {
+            if (inserted[i] == 1) {
+                Stat stat = candidates.get(i);
+                totals.get(new TotalKey(stat.getAppId(), stat.getUriId()))[1]++;
+            }
+        }
+        List<Object[]> rows = totals.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey().getAppId(), entry.getKey().getUriId(),
+                        entry.getValue()[0], entry.getValue()[1]})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(dialect.upsertIncrementSql("stats_totals", List.of("app_id", "uri_id"),
+                List.of("INTEGER", "INTEGER"), List.of("hits", "visitors")), rows);
+    }
+
+    @Override
+    public void rebuild() {
+        if (dialect == DatabaseDialect.POSTGRESQL) {
+            jdbcTemplate.execute("LOCK TABLE stats IN SHARE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM stats_totals");
+        jdbcTemplate.update("DELETE FROM stats_visitors");
+        jdbcTemplate.update("INSERT INTO stats_visitors (app_id, uri_id, ip) "
+                + "SELECT DISTINCT app_id, uri_id, ip FROM stats");
+        jdbcTemplate.update("INSERT INTO stats_totals (app_id, uri_id, hits, visitors) "
+                + "SELECT app_id, uri_id, COUNT(*), COUNT(DISTINCT ip) FROM stats GROUP BY app_id, uri_id");
+    }
+
+    @Override
+    public boolean isStale() {
+        Boolean stale = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM stats) "
+                + "AND NOT EXISTS (SELECT 1 FROM stats_totals)", Boolean.class);
+        return Boolean.TRUE.equals(stale);
+    }
+
+    @Override
+    public List<StatDto> findStats(List<String> uris, String app, boolean unique, StatPage page) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder query = new StringBuilder("SELECT app_id, uri_id, SUM(")
+                .append(unique ? "visitors" : "hits").append(") AS hits FROM stats_totals WHERE 1 = 1");
+        if (uris != null && !uris.isEmpty()) {
+            Integer[] uriIds = statDictionary.findUriIds(uris).toArray(new Integer[0]);
+            if (uriIds.length == 0) {
+                return List.of();
+            }
+            query.append(" AND uri_id = ANY(:uriIds)");
+            parameters.addValue("uriIds", uriIds);
+        }
+        if (app != null) {
+            Integer appId = statDictionary.getAppId(app);
+            if (appId == null) {
+                return List.of();
+            }
+            query.append(" AND app_id = :appId");
+            parameters.addValue("appId", appId);
+        }
+        query.append(" GROUP BY app_id, uri_id");
+        page.appendSql(query, unique ? "SUM(visitors)" : "SUM(hits)", parameters);
+        return namedJdbcTemplate.query(query.toString(), parameters, (rs, rowNum) ->
+                statDictionary.toStatDto(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+    }
+}
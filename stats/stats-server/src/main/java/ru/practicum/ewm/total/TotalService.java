@@ -0,0 +1,12 @@
+package ru.practicum.ewm.total;
+
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+
+import java.util.List;
+
+public interface TotalService {
+    void rebuild();
+
+    List<StatDto> getStat(List<String> uris, String app, boolean unique, StatPage page);
+}
@@ -0,0 +1,49 @@
+package ru.practicum.ewm.total;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatIngestListener;
+import ru.practicum.ewm.stat.StatPage;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+@Service
+@Slf4j
+public class TotalServiceImpl implements TotalService, StatIngestListener {
+    private final TotalRepository totalRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public TotalServiceImpl(TotalRepository totalRepository, TransactionTemplate transactionTemplate) {
+        this.totalRepository = totalRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (totalRepository.isStale()) {
+            log.info("Итоговые счётчики просмотров отсутствуют, пересчёт по исходным данным");
+            rebuild();
+        }
+    }
+
+    @Override
+    public void onWrite(List<Stat> stats) {
+        totalRepository.addHits(stats);
+    }
+
+    @Override
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> totalRepository.rebuild());
+    }
+
+    @Override
+    public List<StatDto> getStat(List<String> uris, String app, boolean unique, StatPage page) {
+        return totalRepository.findStats(uris, app, unique, page);
+    }
+}
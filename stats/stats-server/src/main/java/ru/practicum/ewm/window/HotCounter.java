@@ -0,0 +1,74 @@
+package ru.practicum.ewm.window;
+
+import java.util.Arrays;
+
+public class HotCounter {
+    private long[] seconds = new long[4];
+    private int[] counts = new int[4];
+    private int size;
+
+    public synchronized int add(long second, int count) {
+        if (size > 0 && seconds[size - 1] == second) {
+            counts[size - 1] += count;
+            return 0;
+        }
+        int position = size == 0 || seconds[size - 1] < second ? size : lowerBound(second);
+        if (position < size && seconds[position] == second) {
+            counts[position] += count;
+            return 0;
+        }
+        if (size == seconds.length) {
+            seconds = Arrays.copyOf(seconds, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(seconds, position, seconds, position + 1, size - position);
+        System.arraycopy(counts, position, counts, position + 1, size - position);
+        seconds[position] = second;
+        counts[position] = count;
+        size++;
+        return 1;
+    }
+
+    public synchronized long sum(long fromSecond, long toSecond) {
+        long hits = 0;
+        for (int i = lowerBound(fromSecond); i < size && seconds[i] <= toSecond; i++) {
+            hits += counts[i];
+        }
+        return hits;
+    }
+
+    public synchronized int prune(long beforeSecond) {
+        int removed = lowerBound(beforeSecond);
+        if (removed == 0) {
+            return 0;
+        }
+        size -= removed;
+        int capacity = Math.max(4, size * 2);
+        if (capacity < seconds.length / 2) {
+            seconds = Arrays.copyOfRange(seconds, removed, removed + capacity);
+            counts = Arrays.copyOfRange(counts, removed, removed + capacity);
+        } else {
+            System.arraycopy(seconds, removed, seconds, 0, size);
+            System.arraycopy(counts, removed, counts, 0, size);
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int lowerBound(long second) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (seconds[middle] < second) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
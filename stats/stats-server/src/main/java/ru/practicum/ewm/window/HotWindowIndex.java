@@ -0,0 +1,229 @@
+package ru.practicum.ewm.window;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatIngestListener;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class HotWindowIndex implements StatIngestListener {
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatDictionary statDictionary;
+    private final boolean enabled;
+    private final Duration window;
+    private final long maxEntries;
+    private final Map<String, Map<String, HotCounter>> counters = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, Long> secondEntries = new ConcurrentSkipListMap<>();
+    private final AtomicLong entries = new AtomicLong();
+    private volatile long evictedBefore = Long.MIN_VALUE;
+
+    @Autowired
+    public HotWindowIndex(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          StatDictionary statDictionary, MeterRegistry meterRegistry,
+                          @Value("${stats.hot-window.enabled}") boolean enabled,
+                          @Value("${stats.hot-window.hours}") long hours,
+                          @Value("${stats.hot-window.max-entries}") long maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.statDictionary = statDictionary;
+        this.enabled = enabled;
+        this.window = Duration.ofHours(hours);
+        this.maxEntries = maxEntries;
+        Gauge.builder("stats.hot-window.entries", entries, AtomicLong::get)
+                .description("Количество посекундных счётчиков в памяти")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime from = LocalDateTime.now().minus(window);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement("SELECT app_id, uri_id, created, COUNT(*) AS hits "
+                    + "FROM stats WHERE created >= ? GROUP BY app_id, uri_id, created ORDER BY created");
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            add(statDictionary.getApp(rs.getInt("app_id")), statDictionary.getUri(rs.getInt("uri_id")),
+                    toSecond(rs.getTimestamp("created").toLocalDateTime()), rs.getInt("hits"));
+            evictIfFull();
+        }));
+        log.info("Окно последних просмотров загружено: {} счётчиков", entries.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LocalDateTime getCoverageStart() {
+        LocalDateTime windowStart = LocalDateTime.now().minus(window).withNano(0).plusSeconds(1);
+        long evicted = evictedBefore;
+        if (evicted == Long.MIN_VALUE) {
+            return windowStart;
+        }
+        LocalDateTime evictedStart = LocalDateTime.ofEpochSecond(evicted, 0, ZoneOffset.UTC);
+        return evictedStart.isAfter(windowStart) ? evictedStart : windowStart;
+    }
+
+    @Override
+    public void onWrite(List<Stat> stats) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addAll(stats);
+                }
+            });
+        } else {
+            addAll(stats);
+        }
+    }
+
+    public List<StatDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String app) {
+        long fromSecond = toSecond(start);
+        long toSecond = toSecond(end);
+        List<StatDto> stats = new ArrayList<>();
+        if (app != null) {
+            Map<String, HotCounter> byUri = counters.get(app);
+            if (byUri != null) {
+                addStats(stats, app, byUri, uris, fromSecond, toSecond);
+            }
+        } else {
+            counters.forEach((name, byUri) -> addStats(stats, name, byUri, uris, fromSecond, toSecond));
+        }
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.hot-window.prune-interval-ms}")
+    public void prune() {
+        if (!enabled) {
+            return;
+        }
+        removeBefore(toSecond(LocalDateTime.now().minus(window)));
+        evictIfFull();
+    }
+
+    private void addAll(List<Stat> stats) {
+        long coverageStart = toSecond(getCoverageStart());
+        for (Stat stat : stats) {
+            if (stat.getTimestamp() == null) {
+                continue;
+            }
+            long second = toSecond(stat.getTimestamp());
+            if (second >= coverageStart) {
+                add(stat.getApp(), stat.getUri(), second, 1);
+            }
+        }
+        evictIfFull();
+    }
+
+    private void add(String app, String uri, long second, int hits) {
+        counters.computeIfAbsent(app, key -> new ConcurrentHashMap<>()).compute(uri, (key, counter) -> {
+            if (second < evictedBefore) {
+                return counter;
+            }
+            HotCounter target = counter == null ? new HotCounter() : counter;
+            if (target.add(second, hits) > 0) {
+                entries.incrementAndGet();
+                secondEntries.merge(second, 1L, Long::sum);
+            }
+            return target;
+        });
+    }
+
+    private void evictIfFull() {
+        if (entries.get() > maxEntries) {
+            evict();
+        }
+    }
+
+    private synchronized void evict() {
+        if (entries.get() <= maxEntries) {
+            return;
+        }
+        long excess = entries.get() - maxEntries * 9 / 10;
+        long cutoff = evictedBefore;
+        for (Map.Entry<Long, Long> bucket : secondEntries.entrySet()) {
+            if (excess <= 0) {
+                break;
+            }
+            excess -= bucket.getValue();
+            cutoff = bucket.getKey() + 1;
+        }
+        evictedBefore = Math.max(evictedBefore, cutoff);
+        removeBefore(evictedBefore);
+        log.info("Окно последних просмотров переполнено, данные до {} вытеснены", getCoverageStart());
+    }
+
+    private void removeBefore(long second) {
+        counters.values().forEach(byUri -> byUri.keySet().forEach(uri -> byUri.computeIfPresent(uri,
+                (key, counter) -> {
+                    entries.addAndGet(-counter.prune(second));
+                    return counter.size() == 0 ? null : counter;
+                })));
+        secondEntries.headMap(second).clear();
+    }
+
+    private void addStats(List<StatDto> stats, String app, Map<String, HotCounter> byUri, List<String> uris,
+                          long fromSecond, long toSecond) {
+        if (uris == null || uris.isEmpty()) {
+            byUri.forEach((uri, counter) -> addStat(stats, app, uri, counter.sum(fromSecond, toSecond)));
+        } else {
+            uris.stream().distinct().forEach(uri -> {
+                HotCounter counter = byUri.get(uri);
+                if (counter != null) {
+                    addStat(stats, app, uri, counter.sum(fromSecond, toSecond));
+                }
+            });
+        }
+    }
+
+    private void addStat(List<StatDto> stats, String app, String uri, long hits) {
+        if (hits > 0) {
+            stats.add(StatDto.builder()
+                    .app(app)
+                    .uri(uri)
+                    .hits(hits)
+                    .build());
+        }
+    }
+
+    private static long toSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
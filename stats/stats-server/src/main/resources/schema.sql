@@ -1,12 +1,102 @@
 -- DROP TABLE IF EXISTS stats;
 
 
+create TABLE IF NOT EXISTS stats_apps
+(
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_stat_app PRIMARY KEY (id),
+    CONSTRAINT uq_stat_app_name UNIQUE (name)
+    );
+
+create TABLE IF NOT EXISTS stats_uris
+(
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    uri VARCHAR(2048) NOT NULL,
+    CONSTRAINT pk_stat_uri PRIMARY KEY (id),
+    CONSTRAINT uq_stat_uri_uri UNIQUE (uri)
+    );
+
 create TABLE IF NOT EXISTS stats
 (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    app VARCHAR(255) NOT NULL,
-    uri VARCHAR(2048) NOT NULL,
-    ip VARCHAR(45) NOT NULL,
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    ip BYTEA NOT NULL,
     created timestamp without time zone,
     CONSTRAINT pk_stat PRIMARY KEY (id)
-    );
\ No newline at end of file
+    );
+
+create INDEX IF NOT EXISTS idx_stats_created ON stats (created);
+
+create TABLE IF NOT EXISTS stats_rollup_minute
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket timestamp without time zone NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_stat_rollup_minute PRIMARY KEY (uri_id, app_id, bucket)
+    );
+
+create INDEX IF NOT EXISTS idx_stats_rollup_minute_bucket ON stats_rollup_minute (bucket);
+
+create TABLE IF NOT EXISTS stats_rollup_hour
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket timestamp without time zone NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_stat_rollup_hour PRIMARY KEY (uri_id, app_id, bucket)
+    );
+
+create INDEX IF NOT EXISTS idx_stats_rollup_hour_bucket ON stats_rollup_hour (bucket);
+
+create TABLE IF NOT EXISTS stats_rollup_day
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket timestamp without time zone NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_stat_rollup_day PRIMARY KEY (uri_id, app_id, bucket)
+    );
+
+create INDEX IF NOT EXISTS idx_stats_rollup_day_bucket ON stats_rollup_day (bucket);
+
+create TABLE IF NOT EXISTS stats_sketch_hour
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket timestamp without time zone NOT NULL,
+    registers BYTEA NOT NULL,
+    CONSTRAINT pk_stat_sketch_hour PRIMARY KEY (uri_id, app_id, bucket)
+    );
+
+create INDEX IF NOT EXISTS idx_stats_sketch_hour_bucket ON stats_sketch_hour (bucket);
+
+create TABLE IF NOT EXISTS stats_sketch_day
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket timestamp without time zone NOT NULL,
+    registers BYTEA NOT NULL,
+    CONSTRAINT pk_stat_sketch_day PRIMARY KEY (uri_id, app_id, bucket)
+    );
+
+create INDEX IF NOT EXISTS idx_stats_sketch_day_bucket ON stats_sketch_day (bucket);
+
+create TABLE IF NOT EXISTS stats_totals
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    hits BIGINT NOT NULL,
+    visitors BIGINT NOT NULL,
+    CONSTRAINT pk_stat_totals PRIMARY KEY (uri_id, app_id)
+    );
+
+create TABLE IF NOT EXISTS stats_visitors
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    ip BYTEA NOT NULL,
+    CONSTRAINT pk_stat_visitors PRIMARY KEY (uri_id, app_id, ip)
+    );
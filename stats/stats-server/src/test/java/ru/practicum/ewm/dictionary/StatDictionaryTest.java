@@ -0,0 +1,77 @@
+package ru.practicum.ewm.dictionary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.ewm.stat.Stat;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatDictionaryTest {
+    private final DictionaryRepository dictionaryRepository = mock(DictionaryRepository.class);
+
+    @Test
+    void repeatedMissIsServedFromNegativeCache() {
+        when(dictionaryRepository.findIds(eq(DictionaryType.URI), anyCollection())).thenReturn(Map.of());
+        StatDictionary dictionary = dictionary(60_000);
+
+        assertThat(dictionary.findUriIds(List.of("/events/404"))).isEmpty();
+        assertThat(dictionary.findUriIds(List.of("/events/404"))).isEmpty();
+        assertThat(dictionary.getUriId("/events/404")).isNull();
+
+        verify(dictionaryRepository, times(1)).findIds(eq(DictionaryType.URI), anyCollection());
+    }
+
+    @Test
+    void foundAndMissingUrisAreSeparated() {
+        when(dictionaryRepository.findIds(eq(DictionaryType.URI), anyCollection()))
+                .thenReturn(Map.of("/events/1", 1));
+        StatDictionary dictionary = dictionary(60_000);
+
+        assertThat(dictionary.findUriIds(List.of("/events/1", "/events/404"))).containsExactly(1);
+        assertThat(dictionary.findUriIds(List.of("/events/1", "/events/404"))).containsExactly(1);
+
+        verify(dictionaryRepository, times(1)).findIds(eq(DictionaryType.URI), anyCollection());
+    }
+
+    @Test
+    void ingestInvalidatesCachedMiss() {
+        when(dictionaryRepository.findIds(eq(DictionaryType.URI), anyCollection())).thenReturn(Map.of());
+        when(dictionaryRepository.findIds(eq(DictionaryType.APP), anyCollection()))
+                .thenReturn(Map.of("ewm-main-service", 1));
+        StatDictionary dictionary = dictionary(60_000);
+        assertThat(dictionary.findUriIds(List.of("/events/404"))).isEmpty();
+
+        when(dictionaryRepository.findIds(eq(DictionaryType.URI), anyCollection()))
+                .thenReturn(Map.of("/events/404", 7));
+        dictionary.resolve(List.of(Stat.builder().app("ewm-main-service").uri("/events/404").build()));
+
+        assertThat(dictionary.findUriIds(List.of("/events/404"))).containsExactly(7);
+        assertThat(dictionary.getUriId("/events/404")).isEqualTo(7);
+        verify(dictionaryRepository).insertMissing(eq(DictionaryType.URI), any());
+    }
+
+    @Test
+    void expiredMissIsCheckedAgain() {
+        when(dictionaryRepository.findIds(eq(DictionaryType.URI), anyCollection())).thenReturn(Map.of());
+        StatDictionary dictionary = dictionary(0);
+
+        dictionary.findUriIds(List.of("/events/404"));
+        dictionary.findUriIds(List.of("/events/404"));
+
+        verify(dictionaryRepository, times(2)).findIds(eq(DictionaryType.URI), anyCollection());
+    }
+
+    private StatDictionary dictionary(long absentTtlMs) {
+        return new StatDictionary(dictionaryRepository, mock(PlatformTransactionManager.class), absentTtlMs, 1000);
+    }
+}
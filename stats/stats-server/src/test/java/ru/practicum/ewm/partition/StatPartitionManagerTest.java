@@ -0,0 +1,147 @@
+package ru.practicum.ewm.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.rollup.RollupService;
+import ru.practicum.ewm.sketch.SketchService;
+import ru.practicum.ewm.stat.DatabaseDialect;
+import ru.practicum.ewm.total.TotalService;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatPartitionManagerTest {
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final RollupService rollupService = mock(RollupService.class);
+    private final SketchService sketchService = mock(SketchService.class);
+    private final TotalService totalService = mock(TotalService.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintainCreatesPartitionsAheadAndMovesStrayRowsOutOfDefault() {
+        LocalDateTime stray = LocalDateTime.of(2019, 3, 1, 0, 0);
+        when(jdbcTemplate.query(contains("DATE_TRUNC('month'"), any(RowMapper.class))).thenReturn(List.of(stray));
+
+        manager(0).maintain();
+
+        LocalDateTime current = PartitionPeriod.MONTH.floor(LocalDateTime.now());
+        for (int i = 0; i <= 2; i++) {
+            verify(jdbcTemplate).execute("CREATE TABLE stats_p" + current.plusMonths(i).format(NAME_FORMAT)
+                    + " (LIKE stats INCLUDING DEFAULTS)");
+        }
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("LOCK TABLE stats_default IN EXCLUSIVE MODE");
+        order.verify(jdbcTemplate).execute("CREATE TABLE stats_p20190301 (LIKE stats INCLUDING DEFAULTS)");
+        order.verify(jdbcTemplate).update(contains("DELETE FROM stats_default WHERE created >= '2019-03-01 00:00:00' "
+                + "AND created < '2019-04-01 00:00:00'"));
+        order.verify(jdbcTemplate).execute("ALTER TABLE stats ATTACH PARTITION stats_p20190301 "
+                + "FOR VALUES FROM ('2019-03-01 00:00:00') TO ('2019-04-01 00:00:00')");
+        verify(rollupService, never()).pruneBefore(any());
+    }
+
+    @Test
+    void retentionPrunesAggregatesUpToLastDroppedBound() throws Exception {
+        ResultSet expired = mock(ResultSet.class);
+        when(expired.getString("relname")).thenReturn("stats_p20190301", "stats_p20190401");
+        when(expired.getString("bound")).thenReturn(
+                "FOR VALUES FROM ('2019-03-01 00:00:00') TO ('2019-04-01 00:00:00')",
+                "FOR VALUES FROM ('2019-04-01 00:00:00') TO ('2019-05-01 00:00:00')");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(expired);
+            handler.processRow(expired);
+            return null;
+        }).when(jdbcTemplate).query(contains("c.relname"), any(RowCallbackHandler.class));
+
+        manager(12).maintain();
+
+        InOrder order = inOrder(jdbcTemplate, rollupService, sketchService, totalService);
+        order.verify(jdbcTemplate).execute("DROP TABLE stats_p20190301");
+        order.verify(jdbcTemplate).execute("DROP TABLE stats_p20190401");
+        order.verify(rollupService).pruneBefore(LocalDateTime.of(2019, 5, 1, 0, 0));
+        order.verify(sketchService).pruneBefore(LocalDateTime.of(2019, 5, 1, 0, 0));
+        order.verify(totalService).rebuild();
+    }
+
+    @Test
+    void retentionWithoutExpiredPartitionsKeepsAggregates() {
+        manager(12).maintain();
+
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+        verify(rollupService, never()).pruneBefore(any());
+        verify(totalService, never()).rebuild();
+    }
+
+    @Test
+    void conversionMovesUndatedRowsAsideBeforeDroppingOldTable() {
+        when(jdbcTemplate.queryForObject(contains("relkind"), eq(String.class))).thenReturn("r");
+        when(jdbcTemplate.queryForObject(contains("created IS NULL"), eq(Integer.class))).thenReturn(2);
+
+        manager(0).init();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE stats RENAME TO stats_unpartitioned");
+        order.verify(jdbcTemplate).update(contains("WHERE created IS NOT NULL"));
+        order.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS stats_rejected_created "
+                + "(LIKE stats_unpartitioned)");
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO stats_rejected_created"));
+        order.verify(jdbcTemplate).execute("DROP TABLE stats_unpartitioned");
+    }
+
+    @Test
+    void conversionWithoutUndatedRowsCreatesNoSideTable() {
+        when(jdbcTemplate.queryForObject(contains("relkind"), eq(String.class))).thenReturn("r");
+        when(jdbcTemplate.queryForObject(contains("created IS NULL"), eq(Integer.class))).thenReturn(0);
+
+        manager(0).init();
+
+        verify(jdbcTemplate, never()).execute(contains("stats_rejected_created"));
+        verify(jdbcTemplate).execute("DROP TABLE stats_unpartitioned");
+    }
+
+    @Test
+    void disabledOutsidePostgresql() {
+        new StatPartitionManager(jdbcTemplate, transactionTemplate, rollupService, sketchService, totalService,
+                DatabaseDialect.H2, true, PartitionPeriod.MONTH, 2, 12, RetentionAction.DROP).maintain();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private StatPartitionManager manager(int retentionPeriods) {
+        return new StatPartitionManager(jdbcTemplate, transactionTemplate, rollupService, sketchService, totalService,
+                DatabaseDialect.POSTGRESQL, true, PartitionPeriod.MONTH, 2, retentionPeriods, RetentionAction.DROP);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupRangeTest {
+    @Test
+    void splitUsesCoarsestAlignedBucketsAndRawEdges() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 15, 30);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 3, 2, 30, 0, 500);
+
+        List<RollupRange> ranges = RollupRange.split(from, to);
+
+        assertThat(ranges).extracting(RollupRange::getResolution).containsExactly(
+                null, RollupResolution.MINUTE, RollupResolution.HOUR, RollupResolution.DAY,
+                RollupResolution.HOUR, RollupResolution.MINUTE, null);
+        assertThat(ranges).extracting(RollupRange::getFrom).containsExactly(
+                from,
+                LocalDateTime.of(2030, 1, 1, 10, 16),
+                LocalDateTime.of(2030, 1, 1, 11, 0),
+                LocalDateTime.of(2030, 1, 2, 0, 0),
+                LocalDateTime.of(2030, 1, 3, 0, 0),
+                LocalDateTime.of(2030, 1, 3, 2, 0),
+                LocalDateTime.of(2030, 1, 3, 2, 30));
+    }
+
+    @Test
+    void splitOfRangeInsideOneMinuteIsRaw() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 15, 10);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 1, 10, 15, 50);
+
+        assertThat(RollupRange.split(from, to)).singleElement()
+                .satisfies(range -> {
+                    assertThat(range.isRaw()).isTrue();
+                    assertThat(range.getFrom()).isEqualTo(from);
+                    assertThat(range.getTo()).isEqualTo(to);
+                });
+    }
+
+    @Test
+    void splitOfEmptyRangeIsEmpty() {
+        LocalDateTime at = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThat(RollupRange.split(at, at)).isEmpty();
+        assertThat(RollupRange.split(at.plusDays(1), at)).isEmpty();
+    }
+
+    @Test
+    void splitCoversRangeContiguouslyWithAlignedBuckets() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime from = base.plusSeconds(random.nextInt(5 * 24 * 3600)).plusNanos(random.nextInt(1000) * 1000L);
+            LocalDateTime to = from.plusSeconds(random.nextInt(3 * 24 * 3600)).plusNanos(random.nextInt(1000) * 1000L);
+
+            List<RollupRange> ranges = RollupRange.split(from, to);
+
+            LocalDateTime covered = from;
+            for (RollupRange range : ranges) {
+                assertThat(range.getFrom()).isEqualTo(covered);
+                assertThat(range.getFrom()).isBefore(range.getTo());
+                if (!range.isRaw()) {
+                    assertThat(range.getResolution().floor(range.getFrom())).isEqualTo(range.getFrom());
+                    assertThat(range.getResolution().floor(range.getTo())).isEqualTo(range.getTo());
+                }
+                covered = range.getTo();
+            }
+            assertThat(covered).isEqualTo(from.isBefore(to) ? to : from);
+        }
+    }
+}
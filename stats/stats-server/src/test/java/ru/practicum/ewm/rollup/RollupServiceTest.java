@@ -0,0 +1,128 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.sketch.SketchService;
+import ru.practicum.ewm.stat.IpAddresses;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+import ru.practicum.ewm.stat.StatRepository;
+import ru.practicum.ewm.stat.StatWriter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RollupServiceTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2031, 3, 2, 0, 0);
+
+    @Autowired
+    private StatWriter statWriter;
+    @Autowired
+    private RollupService rollupService;
+    @Autowired
+    private SketchService sketchService;
+    @Autowired
+    private StatRepository statRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rollupQueriesMatchRawCountsAcrossBucketEdges() {
+        String uri = "/events/" + UUID.randomUUID();
+        statWriter.writeBatch(Stream.of(
+                        DAY.minusSeconds(1),
+                        DAY,
+                        DAY.plusSeconds(30),
+                        DAY.plusMinutes(1),
+                        DAY.plusMinutes(59).plusSeconds(59),
+                        DAY.plusHours(1),
+                        DAY.plusHours(23).plusMinutes(59).plusSeconds(59),
+                        DAY.plusDays(1),
+                        DAY.plusDays(1).plusHours(12).plusMinutes(34).plusSeconds(56))
+                .map(timestamp -> stat(uri, timestamp))
+                .collect(Collectors.toList()));
+
+        List<LocalDateTime[]> windows = List.of(
+                new LocalDateTime[]{DAY, DAY.plusHours(1)},
+                new LocalDateTime[]{DAY.minusSeconds(1), DAY},
+                new LocalDateTime[]{DAY.plusSeconds(1), DAY.plusMinutes(59).plusSeconds(59)},
+                new LocalDateTime[]{DAY.minusDays(1), DAY.plusDays(2)},
+                new LocalDateTime[]{DAY.plusMinutes(1), DAY.plusDays(1)},
+                new LocalDateTime[]{DAY.plusHours(2), DAY.plusHours(3)});
+        for (LocalDateTime[] window : windows) {
+            assertThat(hits(rollupService.getStat(window[0], window[1], List.of(uri), null, StatPage.ALL)))
+                    .as("окно %s - %s", window[0], window[1])
+                    .isEqualTo(hits(statRepository.findStatsByStartDateAndEndDate(window[0], window[1], List.of(uri),
+                            null, false, StatPage.ALL)));
+        }
+        assertThat(hits(rollupService.getStat(DAY, DAY.plusHours(1), List.of(uri), null, StatPage.ALL)))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void statBeforeExcludesUpperBound() {
+        String uri = "/events/" + UUID.randomUUID();
+        LocalDateTime boundary = DAY.plusHours(6);
+        statWriter.writeBatch(List.of(stat(uri, boundary.minusMinutes(90)), stat(uri, boundary.minusNanos(500_000_000)),
+                stat(uri, boundary), stat(uri, boundary.plusNanos(500_000_000))));
+
+        assertThat(hits(rollupService.getStatBefore(DAY, boundary, List.of(uri), null))).isEqualTo(2);
+        assertThat(hits(statRepository.findStatsBefore(DAY, boundary, List.of(uri), null))).isEqualTo(2);
+        assertThat(hits(rollupService.getStat(DAY, boundary, List.of(uri), null, StatPage.ALL))).isEqualTo(3);
+    }
+
+    @Test
+    void pruneBeforeDropsOnlyOlderBuckets() {
+        String uri = "/events/" + UUID.randomUUID();
+        LocalDateTime bound = LocalDateTime.of(1990, 2, 1, 0, 0);
+        statWriter.writeBatch(List.of(stat(uri, bound.minusDays(10)), stat(uri, bound.minusSeconds(1)),
+                stat(uri, bound), stat(uri, bound.plusDays(10))));
+
+        rollupService.pruneBefore(bound);
+        sketchService.pruneBefore(bound);
+
+        for (String table : List.of("stats_rollup_minute", "stats_rollup_hour", "stats_rollup_day",
+                "stats_sketch_hour", "stats_sketch_day")) {
+            assertThat(jdbcTemplate.queryForList("SELECT t.bucket FROM " + table + " t "
+                    + "JOIN stats_uris u ON u.id = t.uri_id WHERE u.uri = ?", LocalDateTime.class, uri))
+                    .as(table)
+                    .containsExactlyInAnyOrder(bound, bound.plusDays(10));
+        }
+    }
+
+    @Test
+    void rebuildReproducesIncrementalRollups() {
+        String uri = "/events/" + UUID.randomUUID();
+        statWriter.writeBatch(List.of(stat(uri, DAY.plusMinutes(5)), stat(uri, DAY.plusHours(5)),
+                stat(uri, DAY.plusDays(3))));
+        long before = hits(rollupService.getStat(DAY, DAY.plusDays(4), List.of(uri), null, StatPage.ALL));
+
+        rollupService.rebuild();
+
+        assertThat(before).isEqualTo(3);
+        assertThat(hits(rollupService.getStat(DAY, DAY.plusDays(4), List.of(uri), null, StatPage.ALL)))
+                .isEqualTo(before);
+    }
+
+    private static long hits(List<StatDto> stats) {
+        return stats.stream().mapToLong(StatDto::getHits).sum();
+    }
+
+    private static Stat stat(String uri, LocalDateTime timestamp) {
+        return Stat.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(IpAddresses.parse("10.0.0.1"))
+                .timestamp(timestamp)
+                .build();
+    }
+}
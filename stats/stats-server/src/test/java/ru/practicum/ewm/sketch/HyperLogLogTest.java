@@ -0,0 +1,114 @@
+package ru.practicum.ewm.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+    private static final int PRECISION = HyperLogLog.precisionForError(0.02);
+
+    @Test
+    void precisionForErrorMatchesStandardError() {
+        assertThat(PRECISION).isEqualTo(12);
+        assertThat(HyperLogLog.precisionForError(0.5)).isEqualTo(4);
+        assertThat(HyperLogLog.precisionForError(0.0001)).isEqualTo(18);
+    }
+
+    @Test
+    void estimateStaysWithinThreeStandardErrors() {
+        double standardError = 1.04 / Math.sqrt(1 << PRECISION);
+        for (int cardinality : new int[]{10, 100, 1_000, 10_000, 100_000, 500_000}) {
+            HyperLogLog sketch = sketch(0, cardinality, PRECISION);
+
+            assertThat((double) sketch.estimate())
+                    .as("кардинальность %d", cardinality)
+                    .isCloseTo(cardinality, within(Math.max(1, 3 * standardError * cardinality)));
+        }
+    }
+
+    @Test
+    void duplicatesDoNotChangeEstimate() {
+        HyperLogLog sketch = sketch(0, 5_000, PRECISION);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 5_000; i++) {
+            sketch.addHash(hash(i));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void mergeEstimatesUnion() {
+        HyperLogLog first = sketch(0, 30_000, PRECISION);
+        HyperLogLog second = sketch(20_000, 50_000, PRECISION);
+
+        first.merge(second);
+
+        assertThat((double) first.estimate()).isCloseTo(50_000, within(50_000 * 0.05));
+        assertThat(first.estimate()).isEqualTo(sketch(0, 50_000, PRECISION).estimate());
+    }
+
+    @Test
+    void foldMatchesSketchBuiltAtLowerPrecision() {
+        for (int cardinality : new int[]{50, 20_000}) {
+            HyperLogLog folded = sketch(0, cardinality, 14).fold(10);
+
+            assertThat(folded.getPrecision()).isEqualTo(10);
+            assertThat(folded.estimate()).isEqualTo(sketch(0, cardinality, 10).estimate());
+        }
+    }
+
+    @Test
+    void unionFoldsToLowerPrecision() {
+        HyperLogLog precise = sketch(0, 10_000, 14);
+        HyperLogLog coarse = sketch(5_000, 15_000, 10);
+
+        HyperLogLog union = HyperLogLog.union(precise, coarse);
+
+        assertThat(union.getPrecision()).isEqualTo(10);
+        assertThat(union.estimate()).isEqualTo(sketch(0, 15_000, 10).estimate());
+    }
+
+    @Test
+    void bytesRoundTripInSparseAndDenseForm() {
+        for (int cardinality : new int[]{0, 20, 100_000}) {
+            HyperLogLog sketch = sketch(0, cardinality, PRECISION);
+
+            HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+            assertThat(restored.getPrecision()).isEqualTo(PRECISION);
+            assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+            assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+        }
+    }
+
+    @Test
+    void sparseSketchIsCompact() {
+        assertThat(sketch(0, 10, PRECISION).toBytes()).hasSizeLessThan(64);
+        assertThat(sketch(0, 100_000, PRECISION).toBytes()).hasSize(2 + (1 << PRECISION));
+    }
+
+    @Test
+    void rejectsUnsupportedPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(19)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sketch(0, 10, 10).fold(12)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HyperLogLog sketch(int from, int to, int precision) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            sketch.addHash(hash(i));
+        }
+        return sketch;
+    }
+
+    private static long hash(int value) {
+        return HyperLogLog.hash(ByteBuffer.allocate(4).putInt(value).array());
+    }
+}
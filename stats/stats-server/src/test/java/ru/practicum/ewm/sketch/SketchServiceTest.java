@@ -0,0 +1,70 @@
+package ru.practicum.ewm.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.ewm.stat.IpAddresses;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatWriter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+class SketchServiceTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2031, 5, 10, 0, 0);
+
+    @Autowired
+    private StatWriter statWriter;
+    @Autowired
+    private SketchService sketchService;
+
+    @Test
+    void approximateUniqueCountMergesHourAndDaySketches() {
+        String uri = "/events/" + UUID.randomUUID();
+        List<Stat> stats = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            stats.add(stat(uri, "10.0." + (i % 1_000) / 250 + "." + i % 250, DAY.plusMinutes(i % (3 * 24 * 60))));
+        }
+        statWriter.writeBatch(stats);
+
+        assertThat((double) hits(sketchService.getStat(DAY, DAY.plusDays(3), List.of(uri), null)))
+                .isCloseTo(1_000, within(1_000 * 0.06));
+        assertThat(hits(sketchService.getStat(DAY.plusHours(1), DAY.plusHours(1).plusMinutes(59), List.of(uri),
+                null))).isBetween(55L, 65L);
+    }
+
+    @Test
+    void rebuildReproducesIncrementalSketches() {
+        String uri = "/events/" + UUID.randomUUID();
+        List<Stat> stats = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            stats.add(stat(uri, "10.1.0." + i, DAY.plusHours(i % 30)));
+        }
+        statWriter.writeBatch(stats);
+        long before = hits(sketchService.getStat(DAY, DAY.plusDays(2), List.of(uri), null));
+
+        sketchService.rebuild();
+
+        assertThat(hits(sketchService.getStat(DAY, DAY.plusDays(2), List.of(uri), null))).isEqualTo(before);
+    }
+
+    private static long hits(List<StatDto> stats) {
+        return stats.stream().mapToLong(StatDto::getHits).sum();
+    }
+
+    private static Stat stat(String uri, String ip, LocalDateTime timestamp) {
+        return Stat.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(IpAddresses.parse(ip))
+                .timestamp(timestamp)
+                .build();
+    }
+}
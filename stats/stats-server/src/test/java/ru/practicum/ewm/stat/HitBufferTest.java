@@ -0,0 +1,125 @@
+package ru.practicum.ewm.stat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class HitBufferTest {
+    private final StatWriter statWriter = mock(StatWriter.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void stopRetriesFlushWhileDatabaseIsBrieflyUnavailable() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Stat> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw new TransientDataAccessResourceException("База недоступна");
+            }
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(statWriter).writeBatch(anyList());
+        HitBuffer hitBuffer = new HitBuffer(statWriter, meterRegistry, true, 100, 100, 50, 5000);
+        hitBuffer.start();
+
+        assertThat(hitBuffer.offerAll(stats(10))).isTrue();
+        hitBuffer.stop();
+
+        assertThat(written).hasSize(10);
+        assertThat(meterRegistry.counter("stats.ingest.lost").count()).isZero();
+    }
+
+    @Test
+    void stopCountsHitsStillUnwrittenAtDeadline() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            attempts.incrementAndGet();
+            throw new TransientDataAccessResourceException("База недоступна");
+        }).when(statWriter).writeBatch(anyList());
+        HitBuffer hitBuffer = new HitBuffer(statWriter, meterRegistry, true, 100, 5, 20, 300);
+        hitBuffer.start();
+
+        assertThat(hitBuffer.offerAll(stats(12))).isTrue();
+        long started = System.currentTimeMillis();
+        hitBuffer.stop();
+
+        assertThat(System.currentTimeMillis() - started).isLessThan(5000);
+        assertThat(meterRegistry.counter("stats.ingest.lost").count()).isEqualTo(12);
+        assertThat(attempts.get()).isLessThan(10);
+    }
+
+    @Test
+    void offerAllIsAllOrNothing() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return null;
+        }).when(statWriter).writeBatch(anyList());
+        HitBuffer hitBuffer = new HitBuffer(statWriter, meterRegistry, true, 41, 1, 100, 5000);
+        hitBuffer.start();
+        assertThat(hitBuffer.offer(stat())).isTrue();
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> hitBuffer.offerAll(stats(10))));
+        }
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(accepted).isEqualTo(4);
+        assertThat(meterRegistry.get("stats.ingest.queue.depth").gauge().value()).isEqualTo(40);
+        assertThat(meterRegistry.counter("stats.ingest.rejected").count()).isEqualTo(40);
+        release.countDown();
+        hitBuffer.stop();
+    }
+
+    @Test
+    void offerIsRejectedAfterStop() throws InterruptedException {
+        HitBuffer hitBuffer = new HitBuffer(statWriter, meterRegistry, true, 10, 10, 10, 1000);
+        hitBuffer.start();
+        hitBuffer.stop();
+
+        assertThat(hitBuffer.offer(stat())).isFalse();
+    }
+
+    private static List<Stat> stats(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> stat())
+                .collect(Collectors.toList());
+    }
+
+    private static Stat stat() {
+        return Stat.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip(IpAddresses.parse("10.0.0.1"))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
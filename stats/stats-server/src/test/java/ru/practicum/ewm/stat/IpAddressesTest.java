@@ -0,0 +1,40 @@
+package ru.practicum.ewm.stat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IpAddressesTest {
+    @Test
+    void parsesIpv4AsFourBytes() {
+        assertThat(IpAddresses.parse("192.168.0.1")).containsExactly(192, 168, 0, 1);
+        assertThat(IpAddresses.parse(" 10.0.0.255 ")).containsExactly(10, 0, 0, 255);
+    }
+
+    @Test
+    void parsesIpv6AsSixteenBytes() {
+        assertThat(IpAddresses.parse("2001:db8::1"))
+                .containsExactly(0x20, 0x01, 0x0d, 0xb8, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1);
+        assertThat(IpAddresses.parse("::")).hasSize(16).containsOnly(0);
+        assertThat(IpAddresses.parse("fe80::1%eth0")).hasSize(16);
+    }
+
+    @Test
+    void ipv4MappedAddressesMatchPlainIpv4() {
+        assertThat(IpAddresses.parse("::ffff:1.2.3.4")).containsExactly(1, 2, 3, 4);
+        assertThat(IpAddresses.parse("::ffff:0102:0304")).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void rejectsMalformedAddresses() {
+        for (String value : new String[]{"", "unknown", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1.2.3.-4", "10.0.0.0/24",
+                "1::2::3", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "12345::1", "g::1", "1:2:3:4:5:6:7::8"}) {
+            assertThatThrownBy(() -> IpAddresses.parse(value))
+                    .as(value)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("ip:");
+        }
+        assertThatThrownBy(() -> IpAddresses.parse(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.ewm.stat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.ewm.hit.HitBatchResultDto;
+import ru.practicum.ewm.hit.HitErrorDto;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatBulkLoaderTest {
+    private static final String HIT = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/%d\",\"ip\":\"10.0.0.%d\","
+            + "\"timestamp\":\"2030-01-01 10:00:00\"}";
+
+    private final StatWriter statWriter = mock(StatWriter.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void loadWritesValidLinesInChunksAndReportsBadLinesByNumber() throws IOException {
+        List<Integer> chunkSizes = new ArrayList<>();
+        doAnswer(invocation -> chunkSizes.add(invocation.<List<Stat>>getArgument(0).size()))
+                .when(statWriter).writeBulk(anyList());
+        StatBulkLoader loader = new StatBulkLoader(statWriter, objectMapper, validator, 2, 100);
+
+        HitBatchResultDto result = loader.load(input(hit(1), "", "{not json", hit(2),
+                "{\"app\":\"ewm-main-service\",\"uri\":\"/events/3\",\"ip\":\"10.0.0.3\"}", hit(4), hit(5)));
+
+        assertThat(result.getAccepted()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(HitErrorDto::getIndex).containsExactly(2, 4);
+        assertThat(result.getErrors().get(1).getError()).contains("timestamp");
+        assertThat(chunkSizes).containsExactly(2, 2);
+        verify(statWriter, never()).writeAll(anyList());
+    }
+
+    @Test
+    void loadFallsBackToRowWritesAndMapsErrorsToLines() throws IOException {
+        doThrow(new DataIntegrityViolationException("COPY не удался")).when(statWriter).writeBulk(anyList());
+        List<Integer> retried = new ArrayList<>();
+        when(statWriter.writeAll(anyList())).thenAnswer(invocation -> {
+            retried.add(invocation.<List<Stat>>getArgument(0).size());
+            return List.of(new HitErrorDto(1, "строка отклонена"));
+        });
+        StatBulkLoader loader = new StatBulkLoader(statWriter, objectMapper, validator, 10, 100);
+
+        HitBatchResultDto result = loader.load(input(hit(1), "{bad", hit(2), hit(3)));
+
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(HitErrorDto::getIndex).containsExactly(1, 2);
+        assertThat(retried).containsExactly(3);
+    }
+
+    @Test
+    void loadCapsReportedErrors() throws IOException {
+        StatBulkLoader loader = new StatBulkLoader(statWriter, objectMapper, validator, 10, 2);
+
+        HitBatchResultDto result = loader.load(input("{a", "{b", "{c", hit(1)));
+
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(HitErrorDto::getIndex).containsExactly(0, 1);
+    }
+
+    @Test
+    void loadRejectsUnparsableIp() throws IOException {
+        StatBulkLoader loader = new StatBulkLoader(statWriter, objectMapper, validator, 10, 10);
+
+        HitBatchResultDto result = loader.load(input(HIT.replace("10.0.0.%d", "not-an-ip").replace("%d", "1")));
+
+        assertThat(result.getAccepted()).isZero();
+        assertThat(result.getErrors()).extracting(HitErrorDto::getIndex).containsExactly(0);
+    }
+
+    private static String hit(int n) {
+        return String.format(HIT, n, n);
+    }
+
+    private static ByteArrayInputStream input(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
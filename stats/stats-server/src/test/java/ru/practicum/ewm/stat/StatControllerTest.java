@@ -0,0 +1,265 @@
+package ru.practicum.ewm.stat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatControllerTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 10, 0, 0);
+    private static final String START = "2024-05-09 00:00:00";
+    private static final String END = "2024-05-12 00:00:00";
+    private static final TypeReference<List<StatDto>> STAT_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<StatKeyDto>> STAT_KEY_LIST = new TypeReference<>() {
+    };
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private StatWriter statWriter;
+
+    @Test
+    void streamReturnsSameStatsAsRegularQuery() throws Exception {
+        List<String> uris = writeHits(3, 2, 1);
+
+        List<StatDto> regular = read(mockMvc.perform(stats(uris)).andExpect(status().isOk()).andReturn());
+        List<StatDto> streamed = read(stream(stats(uris).param("stream", "true")));
+
+        assertThat(regular).extracting(StatDto::getHits).containsExactly(3L, 2L, 1L);
+        assertThat(streamed).usingRecursiveFieldByFieldElementComparator().containsExactlyInAnyOrderElementsOf(regular);
+    }
+
+    @Test
+    void streamWritesNdjsonWhenRequested() throws Exception {
+        List<String> uris = writeHits(2, 1);
+
+        MvcResult result = stream(stats(uris).param("stream", "true").param("unique", "true")
+                .header("Accept", "application/x-ndjson"));
+
+        assertThat(result.getResponse().getContentType()).startsWith("application/x-ndjson");
+        List<StatDto> lines = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            lines.add(objectMapper.readValue(line, StatDto.class));
+        }
+        assertThat(lines).extracting(StatDto::getUri).containsExactlyInAnyOrderElementsOf(uris);
+        assertThat(lines).extracting(StatDto::getHits).containsOnly(1L);
+    }
+
+    @Test
+    void streamRejectsInvertedPeriodBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/stats").param("stream", "true").param("start", END).param("end", START))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorPagesCoverEveryStatOnceInOrder() throws Exception {
+        List<String> uris = writeHits(5, 4, 4, 2, 1);
+        List<StatDto> all = read(mockMvc.perform(stats(uris)).andReturn());
+
+        List<StatDto> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder builder = stats(uris).param("limit", "2");
+            if (cursor != null) {
+                builder.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(builder).andExpect(status().isOk()).andReturn();
+            List<StatDto> page = read(result);
+            assertThat(page).hasSizeLessThanOrEqualTo(2);
+            paged.addAll(page);
+            cursor = result.getResponse().getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertThat(all).extracting(StatDto::getHits).containsExactly(5L, 4L, 4L, 2L, 1L);
+        assertThat(paged).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoNextCursor() throws Exception {
+        List<String> uris = writeHits(4, 3, 2, 1);
+
+        MvcResult first = mockMvc.perform(stats(uris).param("limit", "2")).andExpect(status().isOk()).andReturn();
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+        MvcResult second = mockMvc.perform(stats(uris).param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk()).andReturn();
+        MvcResult whole = mockMvc.perform(stats(uris).param("limit", "4")).andExpect(status().isOk()).andReturn();
+
+        assertThat(read(first)).extracting(StatDto::getHits).containsExactly(4L, 3L);
+        assertThat(read(second)).extracting(StatDto::getHits).containsExactly(2L, 1L);
+        assertThat(second.getResponse().getHeader("X-Next-Cursor")).isNull();
+        assertThat(read(whole)).hasSize(4);
+        assertThat(whole.getResponse().getHeader("X-Next-Cursor")).isNull();
+    }
+
+    @Test
+    void exactlyFullLastPageOfTotalsHasNoNextCursor() throws Exception {
+        List<String> uris = writeHits(2, 1);
+
+        MvcResult result = mockMvc.perform(query(StatQueryDto.builder().uris(uris).allTime(true).limit(2).build()))
+                .andExpect(status().isOk()).andReturn();
+
+        assertThat(read(result)).hasSize(2);
+        assertThat(result.getResponse().getHeader("X-Next-Cursor")).isNull();
+    }
+
+    @Test
+    void topReturnsMostViewedFirst() throws Exception {
+        List<String> uris = writeHits(1, 3, 2);
+
+        List<StatDto> top = read(mockMvc.perform(get("/stats/top").param("start", START).param("end", END)
+                .param("uris", uris.toArray(new String[0])).param("limit", "2")).andExpect(status().isOk()).andReturn());
+
+        assertThat(top).extracting(StatDto::getUri).containsExactly(uris.get(1), uris.get(2));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(stats(List.of("/events/1")).param("limit", "2").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void postQueryAcceptsUriListsTooLongForQueryString() throws Exception {
+        List<String> uris = writeHits(3, 1);
+        List<String> requested = new ArrayList<>(uris);
+        for (int i = 0; i < 3000; i++) {
+            requested.add("/events/" + UUID.randomUUID());
+        }
+
+        List<StatDto> queried = read(mockMvc.perform(query(StatQueryDto.builder()
+                        .start(DAY.minusDays(1))
+                        .end(DAY.plusDays(2))
+                        .uris(requested)
+                        .build()))
+                .andExpect(status().isOk()).andReturn());
+
+        assertThat(queried).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(read(mockMvc.perform(stats(uris)).andReturn()));
+    }
+
+    @Test
+    void postQueryPagesAndReadsAllTimeTotals() throws Exception {
+        List<String> uris = writeHits(2, 5, 1);
+
+        MvcResult first = mockMvc.perform(query(StatQueryDto.builder().uris(uris).allTime(true).limit(2).build()))
+                .andExpect(status().isOk()).andReturn();
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+        List<StatDto> second = read(mockMvc.perform(query(StatQueryDto.builder().uris(uris).allTime(true).limit(2)
+                .cursor(cursor).build())).andExpect(status().isOk()).andReturn());
+
+        assertThat(read(first)).extracting(StatDto::getHits).containsExactly(5L, 2L);
+        assertThat(second).extracting(StatDto::getUri).containsExactly(uris.get(2));
+    }
+
+    @Test
+    void postQueryWithoutPeriodIsBadRequest() throws Exception {
+        mockMvc.perform(query(StatQueryDto.builder().uris(List.of("/events/1")).build()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void appFilterCountsOnlyThatApp() throws Exception {
+        List<String> uris = writeHits(2, 1);
+        writeHits("other-service", uris, 4, 4);
+
+        List<StatDto> main = read(mockMvc.perform(stats(uris).param("app", "ewm-main-service")).andReturn());
+        List<StatDto> other = read(mockMvc.perform(stats(uris).param("app", "other-service")).andReturn());
+        List<StatDto> unknown = read(mockMvc.perform(stats(uris).param("app", "unknown-service")).andReturn());
+
+        assertThat(main).extracting(StatDto::getApp).containsOnly("ewm-main-service");
+        assertThat(main).extracting(StatDto::getHits).containsExactly(2L, 1L);
+        assertThat(other).extracting(StatDto::getHits).containsExactly(4L, 4L);
+        assertThat(unknown).isEmpty();
+    }
+
+    @Test
+    void keysGroupsNumericUrisUnderPattern() throws Exception {
+        List<String> uris = writeHits(3, 1, 2);
+        String prefix = uris.get(0).substring(0, uris.get(0).length() - 1);
+        writeHits("ewm-main-service", List.of(prefix + "abc", prefix + "01"), 5, 5);
+
+        List<StatKeyDto> all = readKeys(mockMvc.perform(get("/stats/keys").param("start", START).param("end", END)
+                .param("pattern", prefix + "*")).andExpect(status().isOk()).andReturn());
+        List<StatKeyDto> selected = readKeys(mockMvc.perform(get("/stats/keys").param("start", START)
+                .param("end", END).param("pattern", prefix + "*").param("keys", "2", "7"))
+                .andExpect(status().isOk()).andReturn());
+
+        assertThat(all).extracting(StatKeyDto::getKey, StatKeyDto::getHits)
+                .containsExactly(tuple(0L, 3L), tuple(2L, 2L), tuple(1L, 1L));
+        assertThat(selected).extracting(StatKeyDto::getKey, StatKeyDto::getHits).containsExactly(tuple(2L, 2L));
+    }
+
+    private List<String> writeHits(int... counts) {
+        String prefix = "/events/" + UUID.randomUUID() + "/";
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            uris.add(prefix + i);
+        }
+        return writeHits("ewm-main-service", uris, counts);
+    }
+
+    private List<String> writeHits(String app, List<String> uris, int... counts) {
+        List<Stat> stats = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            String uri = uris.get(i);
+            for (int hit = 0; hit < counts[i]; hit++) {
+                stats.add(Stat.builder()
+                        .app(app)
+                        .uri(uri)
+                        .ip(IpAddresses.parse("10.0.0.1"))
+                        .timestamp(DAY.plusHours(i).plusMinutes(hit))
+                        .build());
+            }
+        }
+        statWriter.writeBatch(stats);
+        return uris;
+    }
+
+    private MockHttpServletRequestBuilder stats(List<String> uris) {
+        return get("/stats").param("start", START).param("end", END).param("uris", uris.toArray(new String[0]));
+    }
+
+    private MockHttpServletRequestBuilder query(StatQueryDto query) throws Exception {
+        return post("/stats/query").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(query));
+    }
+
+    private MvcResult stream(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+    }
+
+    private List<StatDto> read(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), STAT_LIST);
+    }
+
+    private List<StatKeyDto> readKeys(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), STAT_KEY_LIST);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.ewm.stat;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class StatCursorTest {
+    @Test
+    void encodeDecodeRoundTrip() {
+        for (StatCursor cursor : List.of(new StatCursor(0, 1, 1), new StatCursor(Long.MAX_VALUE, Integer.MAX_VALUE, 7),
+                new StatCursor(42, 3, 100500))) {
+            StatCursor decoded = StatCursor.decode(cursor.encode());
+
+            assertThat(decoded).usingRecursiveComparison().isEqualTo(cursor);
+            assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+        }
+    }
+
+    @Test
+    void decodeRejectsMalformedValues() {
+        for (String value : List.of("%%%", encode("1:2"), encode("1:2:3:4"), encode("a:2:3"), encode("1:2:99999999999"))) {
+            assertThatThrownBy(() -> StatCursor.decode(value))
+                    .as(value)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    void ordersByHitsDescendingThenAppThenUri() {
+        List<StatCursor> cursors = new ArrayList<>(List.of(new StatCursor(5, 2, 1), new StatCursor(9, 1, 1),
+                new StatCursor(5, 1, 3), new StatCursor(5, 1, 2)));
+        Collections.shuffle(cursors);
+
+        Collections.sort(cursors);
+
+        assertThat(cursors).extracting(StatCursor::getHits, StatCursor::getAppId, StatCursor::getUriId)
+                .containsExactly(
+                        tuple(9L, 1, 1),
+                        tuple(5L, 1, 2),
+                        tuple(5L, 1, 3),
+                        tuple(5L, 2, 1));
+    }
+
+    @Test
+    void pageRejectsNonPositiveLimit() {
+        assertThatThrownBy(() -> StatPage.of(0, null)).isInstanceOf(BadRequestException.class);
+        assertThat(StatPage.of(null, " ").getAfter()).isNull();
+        assertThat(StatPage.of(10, new StatCursor(3, 1, 2).encode()).getAfter().getHits()).isEqualTo(3);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
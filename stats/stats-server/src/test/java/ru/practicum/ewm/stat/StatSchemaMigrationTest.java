@@ -0,0 +1,23 @@
+package ru.practicum.ewm.stat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StatSchemaMigrationTest {
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void migrationRunsAfterSchemaScriptAndBeforeJdbcUsers() {
+        assertThat(beanFactory.getBeanDefinition("statSchemaMigration").getDependsOn())
+                .contains("dataSourceScriptDatabaseInitializer");
+        assertThat(beanFactory.getBeanDefinition("jdbcTemplate").getDependsOn()).contains("statSchemaMigration");
+        assertThat(beanFactory.getBeanDefinition("namedParameterJdbcTemplate").getDependsOn())
+                .contains("statSchemaMigration");
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.ewm.stat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.rollup.RollupService;
+import ru.practicum.ewm.sketch.SketchService;
+import ru.practicum.ewm.total.TotalService;
+import ru.practicum.ewm.window.HotWindowIndex;
+
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StatServiceImplTest {
+    private static final LocalDateTime COVERAGE_START = LocalDateTime.of(2030, 1, 10, 12, 0);
+    private static final List<String> URIS = List.of("/events/1");
+
+    private final StatRepository statRepository = mock(StatRepository.class);
+    private final RollupService rollupService = mock(RollupService.class);
+    private final HotWindowIndex hotWindowIndex = mock(HotWindowIndex.class);
+    private final StatDictionary statDictionary = mock(StatDictionary.class);
+
+    @BeforeEach
+    void setUp() {
+        when(hotWindowIndex.isEnabled()).thenReturn(true);
+        when(hotWindowIndex.getCoverageStart()).thenReturn(COVERAGE_START);
+        when(statDictionary.getAppId(anyString())).thenReturn(1);
+        when(statDictionary.getUriId(anyString())).thenAnswer(invocation -> invocation.<String>getArgument(0).length());
+    }
+
+    @Test
+    void rangeStraddlingCoverageSplitsAtExclusiveBoundary() {
+        LocalDateTime start = COVERAGE_START.minusDays(1);
+        LocalDateTime end = COVERAGE_START.plusHours(1);
+        when(rollupService.getStatBefore(start, COVERAGE_START, URIS, null)).thenReturn(List.of(stat(5)));
+        when(hotWindowIndex.findStats(COVERAGE_START, end, URIS, null)).thenReturn(List.of(stat(3)));
+
+        List<StatDto> stats = service(true).getStat(start, end, URIS, null, false, false, StatPage.ALL);
+
+        assertThat(stats).extracting(StatDto::getHits).containsExactly(8L);
+        verify(rollupService).getStatBefore(start, COVERAGE_START, URIS, null);
+        verify(hotWindowIndex).findStats(COVERAGE_START, end, URIS, null);
+    }
+
+    @Test
+    void rangeStraddlingCoverageUsesRawExclusiveQueryWithoutRollups() {
+        LocalDateTime start = COVERAGE_START.minusDays(1);
+        LocalDateTime end = COVERAGE_START.plusHours(1);
+        when(statRepository.findStatsBefore(start, COVERAGE_START, URIS, null)).thenReturn(List.of(stat(2)));
+        when(hotWindowIndex.findStats(COVERAGE_START, end, URIS, null)).thenReturn(List.of());
+
+        List<StatDto> stats = service(false).getStat(start, end, URIS, null, false, false, StatPage.ALL);
+
+        assertThat(stats).extracting(StatDto::getHits).containsExactly(2L);
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    void rangeInsideCoverageIsServedFromWindowOnly() {
+        when(hotWindowIndex.findStats(COVERAGE_START, COVERAGE_START.plusHours(1), URIS, null))
+                .thenReturn(List.of(stat(4)));
+
+        List<StatDto> stats = service(true).getStat(COVERAGE_START, COVERAGE_START.plusHours(1), URIS, null, false,
+                false, StatPage.ALL);
+
+        assertThat(stats).extracting(StatDto::getHits).containsExactly(4L);
+        verifyNoInteractions(rollupService, statRepository);
+    }
+
+    @Test
+    void rangeBeforeCoverageIsServedFromDatabaseOnly() {
+        LocalDateTime start = COVERAGE_START.minusDays(2);
+        LocalDateTime end = COVERAGE_START.minusSeconds(1);
+        when(rollupService.getStat(start, end, URIS, null, StatPage.ALL)).thenReturn(List.of(stat(7)));
+
+        List<StatDto> stats = service(true).getStat(start, end, URIS, null, false, false, StatPage.ALL);
+
+        assertThat(stats).extracting(StatDto::getHits).containsExactly(7L);
+        verify(hotWindowIndex, never()).findStats(any(), any(), any(), any());
+    }
+
+    private StatServiceImpl service(boolean rollupEnabled) {
+        return new StatServiceImpl(statRepository, mock(StatWriter.class), mock(HitBuffer.class), rollupService,
+                mock(SketchService.class), mock(TotalService.class), hotWindowIndex, statDictionary,
+                mock(Validator.class), mock(PlatformTransactionManager.class), 100, rollupEnabled);
+    }
+
+    private static StatDto stat(long hits) {
+        return StatDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .hits(hits)
+                .build();
+    }
+}
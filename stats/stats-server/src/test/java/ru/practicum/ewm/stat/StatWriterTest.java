@@ -0,0 +1,84 @@
+package ru.practicum.ewm.stat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.hit.HitErrorDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StatWriterTest {
+    @Autowired
+    private StatWriter statWriter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void writeAllRollsBackFailedChunkBeforeRetryingRows() {
+        String uri = "/events/" + UUID.randomUUID();
+
+        List<HitErrorDto> errors = statWriter.writeAll(List.of(stat(uri, "10.0.0.1"), stat(uri, "10.0.0.2"),
+                stat(uri, null)));
+
+        assertThat(errors).extracting(HitErrorDto::getIndex).containsExactly(2);
+        assertThat(countRows(uri)).isEqualTo(2);
+        assertThat(countRollupHits(uri)).isEqualTo(2);
+        assertThat(countTotalHits(uri)).isEqualTo(2);
+    }
+
+    @Test
+    void writeAllKeepsChunksIndependentOfCallerTransaction() {
+        String uri = "/events/" + UUID.randomUUID();
+
+        List<HitErrorDto> errors = transactionTemplate.execute(status -> statWriter.writeAll(
+                List.of(stat(uri, "10.0.0.1"), stat(uri, null), stat(uri, "10.0.0.3"))));
+
+        assertThat(errors).extracting(HitErrorDto::getIndex).containsExactly(1);
+        assertThat(countRows(uri)).isEqualTo(2);
+        assertThat(countRollupHits(uri)).isEqualTo(2);
+    }
+
+    @Test
+    void writeAllWritesValidChunkOnce() {
+        String uri = "/events/" + UUID.randomUUID();
+
+        List<HitErrorDto> errors = statWriter.writeAll(List.of(stat(uri, "10.0.0.1"), stat(uri, "10.0.0.1")));
+
+        assertThat(errors).isEmpty();
+        assertThat(countRows(uri)).isEqualTo(2);
+        assertThat(countTotalHits(uri)).isEqualTo(2);
+    }
+
+    private Stat stat(String uri, String ip) {
+        return Stat.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(ip == null ? null : IpAddresses.parse(ip))
+                .timestamp(LocalDateTime.now().withNano(0))
+                .build();
+    }
+
+    private long countRows(String uri) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM stats s JOIN stats_uris u ON u.id = s.uri_id "
+                + "WHERE u.uri = ?", Long.class, uri);
+    }
+
+    private long countRollupHits(String uri) {
+        return jdbcTemplate.queryForObject("SELECT coalesce(sum(r.hits), 0) FROM stats_rollup_minute r "
+                + "JOIN stats_uris u ON u.id = r.uri_id WHERE u.uri = ?", Long.class, uri);
+    }
+
+    private long countTotalHits(String uri) {
+        return jdbcTemplate.queryForObject("SELECT coalesce(sum(t.hits), 0) FROM stats_totals t "
+                + "JOIN stats_uris u ON u.id = t.uri_id WHERE u.uri = ?", Long.class, uri);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.ewm.stat;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UriPatternTest {
+    @Test
+    void parseRequiresExactlyOneWildcard() {
+        assertThat(UriPattern.parse("/events/*").getPrefix()).isEqualTo("/events/");
+        assertThat(UriPattern.parse("/events/*/comments").getSuffix()).isEqualTo("/comments");
+        for (String pattern : new String[]{null, "/events/1", "/events/*/*"}) {
+            assertThatThrownBy(() -> UriPattern.parse(pattern))
+                    .as(pattern)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    void extractKeyAcceptsOnlyCanonicalNumbers() {
+        UriPattern pattern = UriPattern.parse("/events/*/comments");
+
+        assertThat(pattern.extractKey("/events/42/comments")).isEqualTo(42L);
+        assertThat(pattern.extractKey("/events/0/comments")).isZero();
+        assertThat(pattern.extractKey("/events/999999999999999999/comments")).isEqualTo(999_999_999_999_999_999L);
+        assertThat(pattern.extractKey("/events//comments")).isNull();
+        assertThat(pattern.extractKey("/events/042/comments")).isNull();
+        assertThat(pattern.extractKey("/events/-1/comments")).isNull();
+        assertThat(pattern.extractKey("/events/4a/comments")).isNull();
+        assertThat(pattern.extractKey("/events/1000000000000000000/comments")).isNull();
+        assertThat(pattern.extractKey("/events/42")).isNull();
+        assertThat(pattern.extractKey("/users/42/comments")).isNull();
+    }
+
+    @Test
+    void toUriIsInverseOfExtractKey() {
+        UriPattern pattern = UriPattern.parse("/events/*");
+
+        for (long key : new long[]{0, 7, 123456789L}) {
+            assertThat(pattern.extractKey(pattern.toUri(key))).isEqualTo(key);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.ewm.total;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.stat.IpAddresses;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+import ru.practicum.ewm.stat.StatPage;
+import ru.practicum.ewm.stat.StatWriter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TotalServiceTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 7, 1, 0, 0);
+
+    @Autowired
+    private StatWriter statWriter;
+    @Autowired
+    private TotalService totalService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void uniqueVisitorsStayExactAcrossBatches() {
+        String uri = "/events/" + UUID.randomUUID();
+
+        statWriter.writeBatch(List.of(stat(uri, "10.0.0.1", 0), stat(uri, "10.0.0.1", 1), stat(uri, "10.0.0.2", 2)));
+        statWriter.writeBatch(List.of(stat(uri, "10.0.0.2", 3), stat(uri, "10.0.0.3", 4)));
+        statWriter.write(stat(uri, "::ffff:10.0.0.1", 5));
+
+        assertThat(hits(uri, false)).isEqualTo(6);
+        assertThat(hits(uri, true)).isEqualTo(3);
+    }
+
+    @Test
+    void totalsIncludeHitsOutsideAnyEventWindow() {
+        String uri = "/events/" + UUID.randomUUID();
+
+        statWriter.writeBatch(List.of(stat(uri, "10.0.0.1", 0), stat(uri, "10.0.0.2", 24 * 365)));
+
+        assertThat(hits(uri, false)).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildFollowsRawRowsAfterTheyAreRemoved() {
+        String uri = "/events/" + UUID.randomUUID();
+        statWriter.writeBatch(List.of(stat(uri, "10.0.0.1", 0), stat(uri, "10.0.0.2", 1), stat(uri, "10.0.0.2", 2)));
+        assertThat(hits(uri, true)).isEqualTo(2);
+
+        jdbcTemplate.update("DELETE FROM stats WHERE uri_id = (SELECT id FROM stats_uris WHERE uri = ?) "
+                + "AND created < ?", uri, DAY.plusHours(1));
+        totalService.rebuild();
+
+        assertThat(hits(uri, false)).isEqualTo(2);
+        assertThat(hits(uri, true)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats_visitors "
+                + "WHERE uri_id = (SELECT id FROM stats_uris WHERE uri = ?)", Long.class, uri)).isEqualTo(1);
+    }
+
+    private long hits(String uri, boolean unique) {
+        return totalService.getStat(List.of(uri), null, unique, StatPage.ALL).stream()
+                .mapToLong(StatDto::getHits)
+                .sum();
+    }
+
+    private static Stat stat(String uri, String ip, int hours) {
+        return Stat.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(IpAddresses.parse(ip))
+                .timestamp(DAY.plusHours(hours))
+                .build();
+    }
+}
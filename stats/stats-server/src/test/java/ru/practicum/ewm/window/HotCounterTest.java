@@ -0,0 +1,41 @@
+package ru.practicum.ewm.window;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotCounterTest {
+    @Test
+    void addMergesSameSecondAndKeepsOrder() {
+        HotCounter counter = new HotCounter();
+
+        assertThat(counter.add(10, 1)).isEqualTo(1);
+        assertThat(counter.add(10, 2)).isZero();
+        assertThat(counter.add(30, 1)).isEqualTo(1);
+        assertThat(counter.add(20, 4)).isEqualTo(1);
+        assertThat(counter.add(5, 1)).isEqualTo(1);
+
+        assertThat(counter.size()).isEqualTo(4);
+        assertThat(counter.sum(0, 100)).isEqualTo(9);
+        assertThat(counter.sum(10, 20)).isEqualTo(7);
+        assertThat(counter.sum(11, 19)).isZero();
+        assertThat(counter.sum(30, 30)).isEqualTo(1);
+    }
+
+    @Test
+    void pruneDropsSecondsBeforeBound() {
+        HotCounter counter = new HotCounter();
+        for (int second = 0; second < 1000; second++) {
+            counter.add(second, 1);
+        }
+
+        assertThat(counter.prune(0)).isZero();
+        assertThat(counter.prune(990)).isEqualTo(990);
+
+        assertThat(counter.size()).isEqualTo(10);
+        assertThat(counter.sum(0, 2000)).isEqualTo(10);
+        assertThat(counter.sum(995, 999)).isEqualTo(5);
+        counter.add(1000, 3);
+        assertThat(counter.sum(999, 1000)).isEqualTo(4);
+    }
+}
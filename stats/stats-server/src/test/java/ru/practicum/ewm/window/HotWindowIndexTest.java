@@ -0,0 +1,102 @@
+package ru.practicum.ewm.window;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.dictionary.StatDictionary;
+import ru.practicum.ewm.stat.IpAddresses;
+import ru.practicum.ewm.stat.Stat;
+import ru.practicum.ewm.stat.StatDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class HotWindowIndexTest {
+    private static final String APP = "ewm-main-service";
+
+    private final LocalDateTime start = LocalDateTime.now().withNano(0).minusHours(10);
+
+    @Test
+    void evictionDropsOldestSecondsForAllUris() {
+        HotWindowIndex index = index(100);
+        List<Stat> stats = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            stats.add(stat("/events/1", start.plusSeconds(i)));
+        }
+        stats.add(stat("/events/2", start.plusHours(9)));
+        stats.add(stat("/events/2", start.plusHours(9)));
+
+        index.onWrite(stats);
+
+        assertThat(index.getCoverageStart()).isEqualTo(start.plusSeconds(11));
+        assertThat(hits(index.findStats(index.getCoverageStart(), start.plusHours(10), List.of("/events/1"), null)))
+                .isEqualTo(89);
+        assertThat(hits(index.findStats(index.getCoverageStart(), start.plusHours(10), List.of("/events/2"), null)))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void evictionOfBusyUriMovesCoverageOnlyPastOldestSeconds() {
+        HotWindowIndex index = index(1000);
+        List<Stat> stats = new ArrayList<>();
+        stats.add(stat("/events/quiet", start.plusHours(1)));
+        for (int i = 0; i < 1200; i++) {
+            stats.add(stat("/events/busy", start.plusHours(9).plusSeconds(i)));
+        }
+
+        index.onWrite(stats);
+
+        assertThat(index.getCoverageStart()).isEqualTo(start.plusHours(9).plusSeconds(300));
+        assertThat(hits(index.findStats(index.getCoverageStart(), start.plusHours(10), List.of("/events/busy"), null)))
+                .isEqualTo(900);
+    }
+
+    @Test
+    void hitsBeforeCoverageAreIgnored() {
+        HotWindowIndex index = index(10);
+        List<Stat> stats = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            stats.add(stat("/events/1", start.plusSeconds(i)));
+        }
+        index.onWrite(stats);
+
+        index.onWrite(List.of(stat("/events/1", start.plusSeconds(1)), stat("/events/1", start.plusSeconds(2))));
+
+        assertThat(index.getCoverageStart()).isEqualTo(start.plusSeconds(2));
+        assertThat(hits(index.findStats(start, start.plusHours(10), List.of("/events/1"), null))).isEqualTo(10);
+    }
+
+    @Test
+    void findStatsFiltersByAppAndUri() {
+        HotWindowIndex index = index(1000);
+        index.onWrite(List.of(stat("/events/1", start), stat("/events/2", start),
+                Stat.builder().app("other").uri("/events/1").ip(IpAddresses.parse("10.0.0.1")).timestamp(start).build()));
+
+        assertThat(index.findStats(start, start, null, APP)).hasSize(2);
+        assertThat(index.findStats(start, start, List.of("/events/1"), null)).hasSize(2);
+        assertThat(index.findStats(start.plusSeconds(1), start.plusHours(1), null, null)).isEmpty();
+    }
+
+    private HotWindowIndex index(long maxEntries) {
+        return new HotWindowIndex(mock(JdbcTemplate.class), mock(TransactionTemplate.class), mock(StatDictionary.class),
+                new SimpleMeterRegistry(), true, 48, maxEntries);
+    }
+
+    private static long hits(List<StatDto> stats) {
+        return stats.stream().mapToLong(StatDto::getHits).sum();
+    }
+
+    private static Stat stat(String uri, LocalDateTime timestamp) {
+        return Stat.builder()
+                .app(APP)
+                .uri(uri)
+                .ip(IpAddresses.parse("10.0.0.1"))
+                .timestamp(timestamp)
+                .build();
+    }
+}